@@ -0,0 +1,71 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Compares two JMH JSON result files and fails when a benchmark got slower (JDK only, no install needed).
+//
+//   java scripts/CompareJmh.java <baseline.json> <current.json> [maxRegressionPercent, default 10]
+//   java scripts/CompareJmh.java benchmarks/baseline.json target/jmh-result.json 10
+//
+// Prints one line per benchmark and exits with 1 if any score is worse than the baseline by more than the limit.
+// "Worse" means higher for time modes (avgt, sample, ss) and lower for throughput (thrpt).
+public class CompareJmh {
+
+    private static final Pattern RESULT = Pattern.compile(
+            "\"benchmark\"\\s*:\\s*\"([^\"]+)\".*?\"mode\"\\s*:\\s*\"([^\"]+)\".*?\"primaryMetric\"\\s*:\\s*\\{\\s*\"score\"\\s*:\\s*([-0-9.eE+]+)",
+            Pattern.DOTALL);
+
+    record Score(String mode, double value) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score now = entry.getValue();
+            if (before == null) {
+                System.out.printf("NEW   %-45s %12.3f%n", shortName(entry.getKey()), now.value());
+                continue;
+            }
+            // Positive = worse, whatever the mode
+            double change = (now.value() - before.value()) / before.value() * 100;
+            if (now.mode().equals("thrpt")) {
+                change = -change;
+            }
+            boolean regressed = change > maxRegression;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-5s %-45s %12.3f -> %12.3f  (%.1f%% %s)%n",
+                    regressed ? "SLOW" : "OK", shortName(entry.getKey()), before.value(), now.value(),
+                    Math.abs(change), change > 0 ? "worse" : "better");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, maxRegression);
+            System.exit(1);
+        }
+    }
+
+    // com.rubayet.school.benchmark.RepositoryBenchmark.courseCatalog -> RepositoryBenchmark.courseCatalog
+    private static String shortName(String benchmark) {
+        int method = benchmark.lastIndexOf('.');
+        return benchmark.substring(benchmark.lastIndexOf('.', method - 1) + 1);
+    }
+
+    private static Map<String, Score> read(Path file) throws Exception {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        Matcher matcher = RESULT.matcher(Files.readString(file));
+        while (matcher.find()) {
+            scores.put(matcher.group(1), new Score(matcher.group(2), Double.parseDouble(matcher.group(3))));
+        }
+        return scores;
+    }
+}
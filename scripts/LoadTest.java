@@ -0,0 +1,96 @@
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Tiny closed-loop load generator (JDK only, no install needed).
+//
+//   java scripts/LoadTest.java <baseUrl> <path> <username> <password> <concurrency> <seconds>
+//   java scripts/LoadTest.java http://localhost:8080 /courses s1 secret 500 60
+//
+// Every virtual user logs in once (own session), then requests <path> in a loop.
+// Prints throughput, error count and latency percentiles.
+public class LoadTest {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        String path = args[1];
+        String username = args[2];
+        String password = args[3];
+        int concurrency = Integer.parseInt(args[4]);
+        long seconds = Long.parseLong(args[5]);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                users.execute(() -> {
+                    try {
+                        HttpClient client = HttpClient.newBuilder()
+                                .cookieHandler(new CookieManager())
+                                .connectTimeout(Duration.ofSeconds(10))
+                                .build();
+                        login(client, baseUrl, username, password);
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).build();
+                        while (System.nanoTime() < deadline) {
+                            long start = System.nanoTime();
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                latencies.add(System.nanoTime() - start);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n",
+                sorted.size(), errors.get(), sorted.size() / (double) seconds);
+        if (!sorted.isEmpty()) {
+            System.out.printf("p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), sorted.getLast() / 1e6);
+        }
+    }
+
+    private static void login(HttpClient client, String baseUrl, String username, String password) throws Exception {
+        String page = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login")).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher csrf = CSRF.matcher(page);
+        String form = "username=" + encode(username) + "&password=" + encode(password)
+                + (csrf.find() ? "&_csrf=" + encode(csrf.group(1)) : "");
+        client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.floor(p * sorted.size()))) / 1e6;
+    }
+}
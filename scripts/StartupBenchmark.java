@@ -0,0 +1,124 @@
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Time-to-first-request of the app (JDK only, no install needed).
+//
+//   java scripts/StartupBenchmark.java <url> <runs> <command...>
+//   java scripts/StartupBenchmark.java http://localhost:8080/login 5 java -jar target/School-0.0.1-SNAPSHOT.jar
+//
+// Starts the command <runs> times, one after the other. For each run it measures the time from launching the
+// process until <url> first answers 200, i.e. what a new instance in a scale-out costs before it can serve
+// a user, including that first request. Also prints what Spring Boot itself reports ("Started ... in 4.1 seconds").
+// The app needs its database up (compose.yaml); the port in <url> must be free before every run.
+public class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        URI url = URI.create(args[0]);
+        int runs = Integer.parseInt(args[1]);
+        List<String> command = Arrays.asList(args).subList(2, args.length);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(30)).build();
+
+        List<Long> firstRequest = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            Deque<String> lastLines = new ArrayDeque<>();
+            String[] started = {"?"};
+
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            Thread output = Thread.ofVirtual().start(() -> readOutput(process, lastLines, started));
+
+            long millis = -1;
+            try {
+                long deadline = start + TIMEOUT.toNanos();
+                while (System.nanoTime() < deadline && process.isAlive()) {
+                    if (answers(client, request)) {
+                        millis = (System.nanoTime() - start) / 1_000_000;
+                        break;
+                    }
+                    Thread.sleep(10);
+                }
+            } finally {
+                stop(process);
+                output.join();
+            }
+
+            if (millis < 0) {
+                System.out.println("run " + run + ": no 200 from " + url + " (exit code "
+                        + (process.isAlive() ? "-" : process.exitValue()) + "), last output:");
+                synchronized (lastLines) {
+                    lastLines.forEach(line -> System.out.println("  " + line));
+                }
+                System.exit(1);
+            }
+            firstRequest.add(millis);
+            System.out.printf("run %d: first request after %d ms (Spring Boot: started in %s s)%n", run, millis, started[0]);
+        }
+
+        Collections.sort(firstRequest);
+        System.out.println();
+        System.out.println("time-to-first-request over " + runs + " runs");
+        System.out.printf("min    : %d ms%n", firstRequest.getFirst());
+        System.out.printf("median : %d ms%n", firstRequest.get(firstRequest.size() / 2));
+        System.out.printf("max    : %d ms%n", firstRequest.getLast());
+    }
+
+    // Connection refused (not listening yet) and error statuses both mean "not ready"
+    private static boolean answers(HttpClient client, HttpRequest request) throws InterruptedException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (java.io.IOException e) {
+            return false;
+        }
+    }
+
+    // Keeps the last lines for error reports and picks out Spring Boot's own startup time
+    private static void readOutput(Process process, Deque<String> lastLines, String[] started) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = STARTED.matcher(line);
+                if (matcher.find()) {
+                    started[0] = matcher.group(1);
+                }
+                synchronized (lastLines) {
+                    lastLines.addLast(line);
+                    if (lastLines.size() > 20) {
+                        lastLines.removeFirst();
+                    }
+                }
+            }
+        } catch (java.io.IOException ignored) {
+            // The process was stopped
+        }
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
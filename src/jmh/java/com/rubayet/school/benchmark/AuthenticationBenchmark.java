@@ -0,0 +1,83 @@
+package com.rubayet.school.benchmark;
+
+import com.rubayet.school.dto.UserProfile;
+import com.rubayet.school.service.CustomUserDetailsService;
+import com.rubayet.school.service.UserProfileService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// What a login costs: looking the user up, then checking the password with BCrypt.
+// And what the profile lookup on every other request costs, from the cache and from the database.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class AuthenticationBenchmark {
+
+    private CustomUserDetailsService userDetailsService;
+    private UserProfileService userProfileService;
+    private PasswordEncoder passwordEncoder;
+    private String passwordHash;
+
+    // Walks through all seeded students so the lookups below never hit the same row twice in a row
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededSchool school) {
+        userDetailsService = school.bean(CustomUserDetailsService.class);
+        userProfileService = school.bean(UserProfileService.class);
+        passwordEncoder = school.bean(PasswordEncoder.class);
+        passwordHash = passwordEncoder.encode(SeededSchool.PASSWORD);
+    }
+
+    // 1. Login lookup: always from the database, so the hash is the current one
+    @Benchmark
+    public UserDetails loadUser() {
+        next = next % SeededSchool.STUDENTS + 1;
+        return userDetailsService.loadUserByUsername(SeededSchool.studentUsername(next));
+    }
+
+    // 2. Profile served from the cache (the common case: same user, many requests)
+    @Benchmark
+    public UserProfile profileCached() {
+        return userProfileService.findByUsername(SeededSchool.STUDENT_USERNAME);
+    }
+
+    // 3. Profile that has to go to the database (first request, or after the cache entry expired)
+    @Benchmark
+    public UserProfile profileUncached() {
+        next = next % SeededSchool.STUDENTS + 1;
+        String username = SeededSchool.studentUsername(next);
+        userProfileService.evict(username);
+        return userProfileService.findByUsername(username);
+    }
+
+    // 4. Password check on every login (the encoder bean, so a strength change shows up here)
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean bcryptMatches() {
+        return passwordEncoder.matches(SeededSchool.PASSWORD, passwordHash);
+    }
+
+    // 5. Hashing on sign-up and bulk import
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String bcryptEncode() {
+        return passwordEncoder.encode(SeededSchool.PASSWORD);
+    }
+}
@@ -0,0 +1,112 @@
+package com.rubayet.school.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import jakarta.servlet.ServletContext;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// courses.html and students.html: the Thymeleaf render alone, and the whole request
+// (security filters + controller + queries + render) for comparison.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class PageRenderBenchmark {
+
+    private MockMvc mockMvc;
+    private ServletContext servletContext;
+    private Authentication student;
+
+    private View coursesView;
+    private View studentsView;
+    private Map<String, Object> coursesModel;
+    private Map<String, Object> studentsModel;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededSchool school) throws Exception {
+        WebApplicationContext context = (WebApplicationContext) school.context;
+        servletContext = context.getServletContext();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        student = new UsernamePasswordAuthenticationToken(SeededSchool.STUDENT_USERNAME, null,
+                AuthorityUtils.createAuthorityList("ROLE_STUDENT"));
+
+        // Let the controllers build the models once, then only the rendering is measured
+        coursesModel = mockMvc.perform(asStudent("/courses")).andReturn().getModelAndView().getModel();
+        studentsModel = mockMvc.perform(asStudent("/students")).andReturn().getModelAndView().getModel();
+
+        ThymeleafViewResolver viewResolver = school.bean(ThymeleafViewResolver.class);
+        coursesView = viewResolver.resolveViewName("courses", Locale.ENGLISH);
+        studentsView = viewResolver.resolveViewName("students", Locale.ENGLISH);
+    }
+
+    // 1. Render the course catalog (every course card)
+    @Benchmark
+    public String renderCourses() throws Exception {
+        return render(coursesView, coursesModel, "/courses");
+    }
+
+    // 2. Render one page of the student directory
+    @Benchmark
+    public String renderStudents() throws Exception {
+        return render(studentsView, studentsModel, "/students");
+    }
+
+    // 3. GET /courses end to end
+    @Benchmark
+    public String getCourses() throws Exception {
+        return mockMvc.perform(asStudent("/courses")).andReturn().getResponse().getContentAsString();
+    }
+
+    // 4. GET /students end to end
+    @Benchmark
+    public String getStudents() throws Exception {
+        return mockMvc.perform(asStudent("/students")).andReturn().getResponse().getContentAsString();
+    }
+
+    private RequestBuilder asStudent(String path) {
+        return get(path).with(user(SeededSchool.STUDENT_USERNAME).roles("STUDENT"));
+    }
+
+    private String render(View view, Map<String, Object> model, String path) throws Exception {
+        // sec:authorize in the templates reads the current user from the security context
+        SecurityContextHolder.getContext().setAuthentication(student);
+        try {
+            MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", path);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            view.render(model, request, response);
+            return response.getContentAsString();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
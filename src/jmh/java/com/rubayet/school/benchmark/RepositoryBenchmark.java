@@ -0,0 +1,81 @@
+package com.rubayet.school.benchmark;
+
+import com.rubayet.school.dto.CourseSummary;
+import com.rubayet.school.dto.StudentSummary;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.service.StudentDirectoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// The queries behind the two busiest pages: the student directory and the course catalog.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class RepositoryBenchmark {
+
+    // Same page size as the directory (+1 row to detect the next page)
+    private static final Limit PAGE = Limit.of(StudentDirectoryService.PAGE_SIZE + 1);
+
+    private StudentRepository studentRepository;
+    private CourseRepository courseRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededSchool school) {
+        studentRepository = school.bean(StudentRepository.class);
+        courseRepository = school.bean(CourseRepository.class);
+    }
+
+    // 1. Student directory, first page
+    @Benchmark
+    public List<StudentSummary> studentsFirstPage() {
+        return studentRepository.findSummariesAfterId(null, 0L, PAGE);
+    }
+
+    // 2. Student directory, deep page (keyset: should cost the same as the first page)
+    @Benchmark
+    public List<StudentSummary> studentsDeepPage() {
+        return studentRepository.findSummariesAfterId(null, SeededSchool.STUDENTS - 1000L, PAGE);
+    }
+
+    // 3. Student directory sorted by name
+    @Benchmark
+    public List<StudentSummary> studentsByName() {
+        return studentRepository.findSummariesAfterName(null, "Student 2500", 0L, PAGE);
+    }
+
+    // 4. Student directory filtered by department
+    @Benchmark
+    public List<StudentSummary> studentsOfDepartment() {
+        return studentRepository.findSummariesAfterId(7L, 0L, PAGE);
+    }
+
+    // 5. Full course catalog (every course, with teacher and seat counts)
+    @Benchmark
+    public List<CourseSummary> courseCatalog() {
+        return courseRepository.findCatalog();
+    }
+
+    // 6. "Which courses am I in?" for the catalog's enroll/unenroll buttons
+    @Benchmark
+    public Set<Long> enrolledCourseIds() {
+        return courseRepository.findEnrolledCourseIds(SeededSchool.STUDENT_ID);
+    }
+}
@@ -0,0 +1,123 @@
+package com.rubayet.school.benchmark;
+
+import com.rubayet.school.SchoolApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The whole application (web + security + JPA) on an in-memory H2 database, seeded once per fork.
+//
+// Volumes are roughly one faculty of a university:
+//   40 departments, 400 teachers, 800 courses, 20,000 students, 5 enrollments per student (100,000 rows)
+// Every seeded user has the password "password".
+@State(Scope.Benchmark)
+public class SeededSchool {
+
+    static final int DEPARTMENTS = 40;
+    static final int TEACHERS = 400;
+    static final int COURSES = 800;
+    static final int STUDENTS = 20_000;
+    static final int COURSES_PER_STUDENT = 5;
+
+    static final String PASSWORD = "password";
+
+    // Fixed users the benchmarks log in as
+    static final String STUDENT_USERNAME = studentUsername(1);
+    static final long STUDENT_ID = 1;
+    static final String TEACHER_USERNAME = teacherUsername(1);
+
+    private static final int BATCH_SIZE = 1000;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(SchoolApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles("benchmark")
+                .run();
+        seed(context.getBean(JdbcTemplate.class), context.getBean(PasswordEncoder.class).encode(PASSWORD));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    static String studentUsername(int n) {
+        return "student" + n;
+    }
+
+    static String teacherUsername(int n) {
+        return "teacher" + n;
+    }
+
+    // Plain JDBC batches: seeding 100k+ rows through JPA would take longer than the benchmarks.
+    // Ids are given explicitly; the benchmarks never insert, so the sequences are left alone.
+    private static void seed(JdbcTemplate jdbc, String passwordHash) {
+        List<Object[]> departments = new ArrayList<>();
+        for (int d = 1; d <= DEPARTMENTS; d++) {
+            departments.add(new Object[]{d, "Department " + d});
+        }
+        batch(jdbc, "insert into departments (id, name) values (?, ?)", departments);
+
+        // Users 1..TEACHERS are teachers, the rest are students
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> teachers = new ArrayList<>();
+        for (int t = 1; t <= TEACHERS; t++) {
+            users.add(new Object[]{t, teacherUsername(t), passwordHash, "ROLE_TEACHER"});
+            teachers.add(new Object[]{t, "Teacher " + t, teacherUsername(t) + "@school.edu", t, 1 + t % DEPARTMENTS});
+        }
+        List<Object[]> students = new ArrayList<>();
+        for (int s = 1; s <= STUDENTS; s++) {
+            int userId = TEACHERS + s;
+            users.add(new Object[]{userId, studentUsername(s), passwordHash, "ROLE_STUDENT"});
+            // Names repeat on purpose, like real ones do (the name sort has to break ties by id)
+            students.add(new Object[]{s, "Student " + (s % 5000), studentUsername(s) + "@school.edu", userId, 1 + s % DEPARTMENTS});
+        }
+        batch(jdbc, "insert into users (id, username, password, role) values (?, ?, ?, ?)", users);
+        batch(jdbc, "insert into teachers (id, name, email, user_id, department_id) values (?, ?, ?, ?, ?)", teachers);
+        batch(jdbc, "insert into students (id, name, email, user_id, department_id) values (?, ?, ?, ?, ?)", students);
+
+        // Spread enrollments evenly; seats_taken is kept consistent with them like EnrollmentService does
+        int[] seatsTaken = new int[COURSES + 1];
+        List<Object[]> enrollments = new ArrayList<>();
+        for (int s = 1; s <= STUDENTS; s++) {
+            for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                int courseId = 1 + (s * 7 + k * (COURSES / COURSES_PER_STUDENT)) % COURSES;
+                enrollments.add(new Object[]{s, courseId});
+                seatsTaken[courseId]++;
+            }
+        }
+
+        List<Object[]> courses = new ArrayList<>();
+        for (int c = 1; c <= COURSES; c++) {
+            // Every fourth course has no limit, the rest have room for everyone already enrolled
+            Integer capacity = c % 4 == 0 ? null : seatsTaken[c] + 20;
+            courses.add(new Object[]{c, "Course " + c, "An introduction to topic " + c + " with weekly labs and a final project.",
+                    capacity, seatsTaken[c], 0, 1 + c % TEACHERS});
+        }
+        batch(jdbc, "insert into courses (id, title, description, capacity, seats_taken, version, teacher_id) values (?, ?, ?, ?, ?, ?, ?)", courses);
+        batch(jdbc, "insert into student_courses (student_id, course_id) values (?, ?)", enrollments);
+    }
+
+    private static void batch(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
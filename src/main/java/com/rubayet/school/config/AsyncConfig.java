@@ -0,0 +1,11 @@
+package com.rubayet.school.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// Turns on @Async. The executor is Spring Boot's applicationTaskExecutor:
+// a thread pool by default, one virtual thread per task when spring.threads.virtual.enabled=true.
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,90 @@
+package com.rubayet.school.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Checks login passwords (matches) on a small pool of its own: at most "threads" BCrypt checks run at once,
+// "queue" more may wait, and anything beyond that fails at once with PasswordCheckOverloadedException
+// (SecurityConfig answers 429 + Retry-After). However many logins arrive together, the rest of the
+// application keeps the other cores.
+//
+// encode stays on the caller's thread. Sign-up hashes one password per request; a bulk import hashes many, on
+// BulkImportService's own pool, which is capped the same way (school.import.hashing-threads).
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queue, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queue)),
+                Thread.ofPlatform().name("password-check-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.rejected = Counter.builder("school.login.throttled")
+                .description("Login attempts refused before the password was checked")
+                .tag("reason", "overloaded")
+                .register(meterRegistry);
+    }
+
+    // Thrown when the pool and its queue are full. An InternalAuthenticationServiceException,
+    // so ProviderManager gives up at once instead of trying another provider.
+    public static class PasswordCheckOverloadedException extends InternalAuthenticationServiceException {
+        public PasswordCheckOverloadedException() {
+            super("Too many logins in progress");
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Future<Boolean> check;
+        try {
+            check = executor.submit(() -> delegate.matches(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordCheckOverloadedException();
+        }
+
+        try {
+            return check.get();
+        } catch (InterruptedException e) {
+            check.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InternalAuthenticationServiceException("Interrupted while checking the password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new InternalAuthenticationServiceException("Password check failed", e.getCause());
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,10 @@
+package com.rubayet.school.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Turns on @Cacheable / @CacheEvict. The cache names and the Caffeine settings are in application.yaml.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -0,0 +1,37 @@
+package com.rubayet.school.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Wraps the application DataSource in a GuardedDataSource when school.datasource.guard.enabled=true
+// (turned on by the "virtual-threads" profile, see application-virtual-threads.yaml).
+@Configuration
+@ConditionalOnBooleanProperty("school.datasource.guard.enabled")
+public class DataSourceGuardConfig {
+
+    // static: BeanPostProcessors are created before everything else
+    @Bean
+    static BeanPostProcessor dataSourceGuardPostProcessor(Environment environment) {
+        // Default: as many concurrent holders as the pool has connections
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int maxConcurrent = environment.getProperty("school.datasource.guard.max-concurrent", Integer.class, poolSize);
+        int maxWaiting = environment.getProperty("school.datasource.guard.max-waiting", Integer.class, 1000);
+        Duration acquireTimeout = environment.getProperty("school.datasource.guard.acquire-timeout", Duration.class, Duration.ofSeconds(5));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof GuardedDataSource)) {
+                    return new GuardedDataSource(dataSource, maxConcurrent, maxWaiting, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
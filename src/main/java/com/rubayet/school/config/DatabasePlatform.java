@@ -0,0 +1,34 @@
+package com.rubayet.school.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Which database we are talking to. Production runs on PostgreSQL; Postgres-only features
+// (full-text search) check this and fall back to plain SQL elsewhere.
+@Component
+public class DatabasePlatform {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    public boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+                try {
+                    return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+                } catch (SQLException e) {
+                    return false;
+                }
+            }));
+            postgres = result;
+        }
+        return result;
+    }
+}
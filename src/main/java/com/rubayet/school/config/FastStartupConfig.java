@@ -0,0 +1,40 @@
+package com.rubayet.school.config;
+
+import com.rubayet.school.service.TypeaheadIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+// Selective lazy initialization for the "fast-startup" profile (application-fast-startup.yaml turns
+// lazy-initialization on for everything, this class picks what must not wait for the first request):
+// 1. Hibernate (and through it the DataSource and the Flyway migrations) still starts during boot, so a
+//    broken schema or a wrong password fails the instance before it takes traffic, not the first user.
+// 2. The typeahead index is filled in the background once the app is up, instead of delaying readiness
+//    with a scan of every student and teacher.
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    @Autowired
+    private ObjectProvider<TypeaheadIndex> typeaheadIndex;
+
+    // static: read by a BeanFactoryPostProcessor, before any other bean exists
+    @Bean
+    static LazyInitializationExcludeFilter eagerPersistence() {
+        return (beanName, beanDefinition, beanType) -> EntityManagerFactory.class.isAssignableFrom(beanType)
+                || AbstractEntityManagerFactoryBean.class.isAssignableFrom(beanType);
+    }
+
+    // Creating the bean runs its build(); a lookup or update arriving meanwhile waits for it to finish
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmTypeaheadIndex() {
+        Thread.ofVirtual().name("typeahead-warmup").start(typeaheadIndex::getObject);
+    }
+}
@@ -0,0 +1,108 @@
+package com.rubayet.school.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Rate-limits login attempts (POST /login) before Spring Security checks the password, so a
+// credential-stuffing burst is turned away for the price of a map lookup instead of a BCrypt hash.
+//
+// Two buckets per attempt (TokenBuckets): one for the username, one for the client address.
+// An empty bucket answers 429 + Retry-After and is counted in school.login.throttled{reason=account|address}.
+// The address one is generous: a whole classroom can sit behind one school NAT address.
+// Behind the load balancer, getRemoteAddr() is already the client's: Tomcat's RemoteIpValve takes it from
+// X-Forwarded-For when the request comes from a trusted proxy (server.tomcat.remoteip in application.yaml).
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // right after RequestSqlMetricsFilter, well before Spring Security
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${school.login.throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${school.login.throttle.account.burst:5}")
+    private int accountBurst;
+
+    @Value("${school.login.throttle.account.interval:20s}")
+    private Duration accountInterval;
+
+    @Value("${school.login.throttle.address.burst:60}")
+    private int addressBurst;
+
+    @Value("${school.login.throttle.address.interval:200ms}")
+    private Duration addressInterval;
+
+    // Per map; past it the least used buckets are evicted, never the ones being hammered
+    @Value("${school.login.throttle.max-keys:100000}")
+    private int maxKeys;
+
+    private TokenBuckets accounts;
+    private TokenBuckets addresses;
+    private Counter accountThrottled;
+    private Counter addressThrottled;
+
+    @PostConstruct
+    void createBuckets() {
+        accounts = new TokenBuckets(accountBurst, accountInterval, maxKeys);
+        addresses = new TokenBuckets(addressBurst, addressInterval, maxKeys);
+        accountThrottled = throttledCounter("account");
+        addressThrottled = throttledCounter("address");
+    }
+
+    private Counter throttledCounter(String reason) {
+        return Counter.builder("school.login.throttled")
+                .description("Login attempts refused before the password was checked")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !"/login".equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // The address is checked first, so a flood from one machine doesn't also drain its victims' account buckets
+        long waitMillis = addresses.tryTake(request.getRemoteAddr());
+        if (waitMillis > 0) {
+            addressThrottled.increment();
+            tooManyRequests(response, waitMillis);
+            return;
+        }
+
+        String username = request.getParameter("username");
+        waitMillis = accounts.tryTake(username == null ? "" : username);
+        if (waitMillis > 0) {
+            accountThrottled.increment();
+            tooManyRequests(response, waitMillis);
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    static void tooManyRequests(HttpServletResponse response, long waitMillis) {
+        long seconds = Math.max(1, (waitMillis + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+    }
+}
@@ -0,0 +1,56 @@
+package com.rubayet.school.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Metrics on top of what Actuator gives out of the box (everything is on /actuator/prometheus):
+//   http.server.requests        latency per endpoint, with an extra "handler" tag (Controller#method)
+//   school.request.sql.*        SQL statements and SQL time per request (RequestSqlMetricsFilter)
+//   school.password.hashing     BCrypt time (TimedPasswordEncoder, see SecurityConfig)
+//   school.login.throttled      logins refused before BCrypt (LoginThrottleFilter, BoundedPasswordEncoder)
+//   hibernate.*                 entity loads, collection fetches, cache hits (hibernate.generate_statistics)
+//   hikaricp.connections.*      pool usage: active, idle, pending, acquire time
+// Histogram / percentile settings are in application.yaml.
+@Configuration
+public class MetricsConfig {
+
+    // Adds handler="CourseController#listCourses" to http.server.requests
+    @Bean
+    ServerRequestObservationConvention handlerTaggingObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context)
+                        .and(KeyValue.of("handler", RequestSqlMetricsFilter.handlerName(context.getCarrier())));
+            }
+        };
+    }
+
+    // Times every SQL statement and logs the slow ones (replaces show-sql).
+    // static: BeanPostProcessors are created before everything else
+    @Bean
+    static BeanPostProcessor sqlMetricsPostProcessor(Environment environment) {
+        Duration slowThreshold = environment.getProperty("school.sql.slow-query-threshold", Duration.class, Duration.ofMillis(200));
+        double sampleRate = environment.getProperty("school.sql.slow-query-sample-rate", Double.class, 1.0);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlMetricsDataSource)) {
+                    return new SqlMetricsDataSource(dataSource, slowThreshold, sampleRate);
+                }
+                return bean;
+            }
+        };
+    }
+}
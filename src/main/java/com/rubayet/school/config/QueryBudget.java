@@ -0,0 +1,17 @@
+package com.rubayet.school.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Maximum number of SQL statements one request to this controller method should run.
+//
+// A request going over it is logged and counted (school.request.sql.over_budget) by RequestSqlMetricsFilter,
+// so an N+1 query that slips in shows up as "ran 57 statements, budget is 3" instead of a slow page.
+// Methods without it get school.sql.query-budget.default.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
@@ -0,0 +1,67 @@
+package com.rubayet.school.config;
+
+import com.rubayet.school.service.RecentWriters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Sends each connection to the primary or to a replica:
+//
+// - @Transactional(readOnly = true) -> a replica that is close enough behind (ReplicaLagMonitor), round robin
+// - ... unless the current user wrote something a moment ago (RecentWriters, kept in their shared session):
+//   read-your-writes on the primary, whichever instance serves the request
+// - everything else (writes, reads outside a read-only transaction, Flyway, sessions) -> the primary
+//
+// The decision is made when the connection is fetched, so this must sit behind a LazyConnectionDataSourceProxy:
+// the transaction's read-only flag is only known after the transaction manager has asked for its connection.
+// Read-only transactions are counted in school.datasource.reads{target=replica|primary}.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final RecentWriters recentWriters;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                      ReplicaLagMonitor lagMonitor, RecentWriters recentWriters,
+                                      MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.recentWriters = recentWriters;
+        this.replicaReads = readsCounter(meterRegistry, "replica");
+        this.primaryReads = readsCounter(meterRegistry, "primary");
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    private static Counter readsCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("school.datasource.reads")
+                .description("Read-only transactions, by the database that served them")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        String replica = recentWriters.recentlyWrote() ? null : lagMonitor.pick();
+        if (replica == null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica;
+    }
+}
@@ -0,0 +1,143 @@
+package com.rubayet.school.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Asks every replica how far behind the primary it is, every "checkInterval", on a thread of its own.
+// Read-only transactions only go to replicas that answered and are at most "maxLag" behind (pick);
+// with none left, they go to the primary. Published as school.datasource.replica.lag{replica} (ms, -1 = unknown).
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // Milliseconds since the last replayed transaction, or 0 when everything received has been replayed.
+    // An instance that is not a standby at all (a second local database for testing) counts as caught up.
+    // Unknown (-1): a standby that hasn't replayed anything yet, and one whose WAL receiver isn't streaming.
+    // The latter has replayed all it received and would otherwise look caught up however far behind it is.
+    // (pg_stat_wal_receiver.status is only visible to pg_monitor / pg_read_all_stats: without one of them
+    // the replica is never used.)
+    static final String LAG_QUERY = """
+            select case
+                     when not pg_is_in_recovery() then 0
+                     when not exists (select 1 from pg_stat_wal_receiver where status = 'streaming') then -1
+                     when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                     else coalesce((extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000)::bigint, -1)
+                   end
+            """;
+
+    static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile long lagMillis = -1;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final Duration checkInterval;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicasByName, Duration maxLag, Duration checkInterval,
+                             MeterRegistry meterRegistry) {
+        this.maxLagMillis = maxLag.toMillis();
+        this.checkInterval = checkInterval;
+        replicasByName.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            replicas.add(replica);
+            Gauge.builder("school.datasource.replica.lag", replica, r -> r.lagMillis)
+                    .description("How far the replica is behind the primary, in milliseconds (-1: unknown)")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+    }
+
+    // Replicas are unusable until their first check has answered
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-lag-monitor").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::checkAll, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void checkAll() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                update(replica.name, resultSet.getLong(1));
+            } catch (SQLException | RuntimeException e) {
+                if (replica.lagMillis >= 0) {
+                    log.warn("Replica {} is unreachable, reading from the primary instead: {}", replica.name, e.getMessage());
+                }
+                update(replica.name, -1);
+            }
+        }
+    }
+
+    void update(String name, long lagMillis) {
+        for (Replica replica : replicas) {
+            if (replica.name.equals(name)) {
+                replica.lagMillis = lagMillis;
+            }
+        }
+    }
+
+    Map<String, DataSource> replicas() {
+        Map<String, DataSource> byName = new LinkedHashMap<>();
+        replicas.forEach(replica -> byName.put(replica.name, replica.dataSource));
+        return byName;
+    }
+
+    // The next usable replica, round robin; null when none is close enough behind
+    public String pick() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            long lag = replica.lagMillis;
+            if (lag >= 0 && lag <= maxLagMillis) {
+                return replica.name;
+            }
+        }
+        return null;
+    }
+
+    // Stops checking and closes the replica pools
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+}
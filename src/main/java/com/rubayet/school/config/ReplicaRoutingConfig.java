@@ -0,0 +1,82 @@
+package com.rubayet.school.config;
+
+import com.rubayet.school.service.RecentWriters;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read replicas, turned on by the "read-replica" profile (application-read-replica.yaml).
+//
+// Replaces Spring Boot's DataSource with: LazyConnectionDataSourceProxy -> ReadWriteRoutingDataSource ->
+// one Hikari pool for the primary (spring.datasource.*) and one per school.datasource.replica.urls entry.
+// The metrics / guard post-processors then wrap that one DataSource as usual, so every statement is still
+// counted wherever it runs.
+@Configuration
+@ConditionalOnBooleanProperty("school.datasource.replica.enabled")
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    ReplicaLagMonitor replicaLagMonitor(DataSourceProperties properties, Environment environment,
+                                        MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        List<String> urls = binder.bind("school.datasource.replica.urls", Bindable.listOf(String.class)).orElse(List.of());
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("school.datasource.replica.enabled is set but school.datasource.replica.urls is empty");
+        }
+        String username = environment.getProperty("school.datasource.replica.username", properties.determineUsername());
+        String password = environment.getProperty("school.datasource.replica.password", properties.determinePassword());
+        int poolSize = environment.getProperty("school.datasource.replica.maximum-pool-size", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        Duration maxLag = environment.getProperty("school.datasource.replica.max-lag", Duration.class, Duration.ofSeconds(5));
+        Duration checkInterval = environment.getProperty("school.datasource.replica.check-interval", Duration.class, Duration.ofSeconds(1));
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicas, maxLag, checkInterval, meterRegistry);
+        monitor.start();
+        return monitor;
+    }
+
+    @Bean
+    DataSource dataSource(DataSourceProperties properties, Environment environment, ReplicaLagMonitor lagMonitor,
+                          RecentWriters recentWriters, MeterRegistry meterRegistry) {
+        // Same settings as Spring Boot's own pool: spring.datasource.* plus spring.datasource.hikari.*
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        primary.setMetricRegistry(meterRegistry);
+
+        Map<String, DataSource> replicas = lagMonitor.replicas();
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replicas, lagMonitor, recentWriters, meterRegistry));
+        // Known up front, so the proxy never has to open a connection just to find them out
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return lazy;
+    }
+}
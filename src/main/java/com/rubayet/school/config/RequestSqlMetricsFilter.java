@@ -0,0 +1,108 @@
+package com.rubayet.school.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Records how much database work each request did, per controller method:
+//   school.request.sql.statements{handler="CourseController#listCourses"}  statements per request
+//   school.request.sql.time{handler=...}                                    time spent in SQL per request
+//   school.request.sql.over_budget{handler=...}                             requests over their @QueryBudget
+// Runs before Spring Security, so the user lookup on login is counted too.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestSqlMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestSqlMetricsFilter.class);
+
+    // Requests that never reached a controller (login POST, static files, redirects from security)
+    static final String NO_HANDLER = "none";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Log + count requests that run more statements than their budget
+    @Value("${school.sql.query-budget.enabled:true}")
+    private boolean budgetEnabled;
+
+    // Budget for controller methods without @QueryBudget
+    @Value("${school.sql.query-budget.default:20}")
+    private int defaultBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            stats.stop();
+            String handler = handlerName(request);
+            DistributionSummary.builder("school.request.sql.statements")
+                    .description("SQL statements run by one request")
+                    .tag("handler", handler)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(stats.statements());
+            Timer.builder("school.request.sql.time")
+                    .description("Time one request spent running SQL")
+                    .tag("handler", handler)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(stats.nanos(), TimeUnit.NANOSECONDS);
+            if (budgetEnabled) {
+                checkBudget(request, handler, stats);
+            }
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, String handler, RequestSqlStats stats) {
+        int budget = budgetFor(request);
+        if (stats.statements() <= budget) {
+            return;
+        }
+        log.warn("{} {} ({}) ran {} SQL statements, budget is {}",
+                request.getMethod(), request.getRequestURI(), handler, stats.statements(), budget);
+        Counter.builder("school.request.sql.over_budget")
+                .description("Requests that ran more SQL statements than their @QueryBudget")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private int budgetFor(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handlerMethod) {
+            QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+
+    // "StudentController#listStudents" for the controller method that handled the request
+    static String handlerName(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handlerMethod) {
+            return handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+        }
+        return NO_HANDLER;
+    }
+}
@@ -0,0 +1,84 @@
+package com.rubayet.school.config;
+
+import java.util.function.Supplier;
+
+// How many SQL statements the current request has run, how long they took in total,
+// and how many transactions it committed or rolled back (each one is a round trip of its own).
+//
+// RequestSqlMetricsFilter opens one per request (on the request's thread), SqlMetricsDataSource adds to it
+// for every statement. Work outside a request (startup jobs, background threads) is simply not counted.
+//
+// Counters can be nested: a test can open one around a MockMvc call, and the statements of the request
+// (which opens its own) are counted in both.
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private final RequestSqlStats parent;
+    private int statements;
+    private long nanos;
+    private int transactions;
+
+    private RequestSqlStats(RequestSqlStats parent) {
+        this.parent = parent;
+    }
+
+    public static RequestSqlStats start() {
+        RequestSqlStats stats = new RequestSqlStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    // null when nothing is being counted on this thread
+    public static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    // Stops counting; the enclosing counter (if any) becomes current again
+    public void stop() {
+        if (parent != null) {
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    // Runs work whose statements don't belong to any counter on this thread (e.g. the session store,
+    // which runs the same statements around every request)
+    public static <T> T uncounted(Supplier<T> work) {
+        RequestSqlStats current = CURRENT.get();
+        CURRENT.remove();
+        try {
+            return work.get();
+        } finally {
+            if (current != null) {
+                CURRENT.set(current);
+            }
+        }
+    }
+
+    static void record(long elapsedNanos) {
+        for (RequestSqlStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.statements++;
+            stats.nanos += elapsedNanos;
+        }
+    }
+
+    static void recordTransaction() {
+        for (RequestSqlStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.transactions++;
+        }
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+
+    public int transactions() {
+        return transactions;
+    }
+}
@@ -1,25 +1,57 @@
 package com.rubayet.school.config;
 import com.rubayet.school.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.DelegatingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+
+import java.util.LinkedHashMap;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // For the port the management server actually listens on (local.management.port, also when it is random)
+    @Autowired
+    private Environment environment;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${school.login.verification.threads:0}") int threads,
+                                           @Value("${school.login.verification.queue:64}") int queue) {
+        // Timed, so the BCrypt cost shows up next to the request metrics.
+        // Login checks run on their own bounded pool (half the cores by default), see BoundedPasswordEncoder.
+        return new BoundedPasswordEncoder(new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry),
+                threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2), queue, meterRegistry);
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        // Sessions are rows in the shared session store (SessionConfig), so only a login should create one.
+        // Failed logins don't put the exception in the session; the login page only needs ?error.
+        SimpleUrlAuthenticationFailureHandler loginError = new SimpleUrlAuthenticationFailureHandler("/login?error");
+        loginError.setAllowSessionCreation(false);
+        // Every password-check thread busy and the queue full: shed the login like LoginThrottleFilter does
+        LinkedHashMap<Class<? extends AuthenticationException>, AuthenticationFailureHandler> byException = new LinkedHashMap<>();
+        byException.put(BoundedPasswordEncoder.PasswordCheckOverloadedException.class,
+                (request, response, exception) -> LoginThrottleFilter.tooManyRequests(response, 1000));
+        AuthenticationFailureHandler loginFailure = new DelegatingAuthenticationFailureHandler(byException, loginError);
+
         http
                 .authorizeHttpRequests((requests) -> requests
 
@@ -34,17 +66,46 @@ public class SecurityConfig {
                         // Teachers cannot create students - only authenticated users (students/admins) can
                         .requestMatchers("/students/new").hasRole("ADMIN")
                         .requestMatchers("/students/edit/**").hasRole("STUDENT")
+                        // Name / username lookup for the students page
+                        .requestMatchers("/students/typeahead").hasAnyRole("TEACHER", "ADMIN")
                         .requestMatchers("/students").authenticated()
 
+                        // BULK ACCOUNT IMPORT - same rule as creating students: ADMIN only
+                        .requestMatchers("/import", "/import/**").hasRole("ADMIN")
+
+                        // EXPORTS (whole-school CSV / NDJSON) - registrars (ADMIN) and teachers
+                        .requestMatchers("/export/**").hasAnyRole("TEACHER", "ADMIN")
+
+                        // ENROLLMENT - Only STUDENT can enroll / unenroll / wait for a seat
+                        .requestMatchers("/courses/*/enroll", "/courses/*/unenroll",
+                                "/courses/*/waitlist", "/courses/*/waitlist/leave").hasRole("STUDENT")
+
 
                         .requestMatchers("/css/**", "/js/**").permitAll()
+
+                        // HEALTH PROBES - public, on the application port (load balancer / Docker HEALTHCHECK)
+                        .requestMatchers("/livez", "/readyz").permitAll()
+
+                        // ACTUATOR - served on the management port, which listens on a private address only
+                        // (management.server in application.yaml). Health and Prometheus need no login there,
+                        // Prometheus only on that port; the rest is ADMIN only
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/prometheus").access((authentication, context) ->
+                                new AuthorizationDecision(String.valueOf(context.getRequest().getLocalPort())
+                                        .equals(environment.getProperty("local.management.port"))))
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .formLogin((form) -> form
                         .loginPage("/login")
                         .defaultSuccessUrl("/students", true)
+                        .failureHandler(loginFailure)
                         .permitAll()
                 )
+                // The CSRF token lives in a cookie, so anonymous pages (login, signup) need no session
+                .csrf((csrf) -> csrf.csrfTokenRepository(new CookieCsrfTokenRepository()))
+                // Login always lands on /students, so the page that asked for a login is never used again
+                .requestCache((cache) -> cache.requestCache(new NullRequestCache()))
                 .logout((logout) -> logout
                         .logoutSuccessUrl("/")
                         .permitAll()
@@ -54,9 +115,10 @@ public class SecurityConfig {
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService) {
+    public DaoAuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService,
+                                                           PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider auth = new DaoAuthenticationProvider(userDetailsService);
-        auth.setPasswordEncoder(passwordEncoder());
+        auth.setPasswordEncoder(passwordEncoder);
         return auth;
     }
 }
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.rubayet.school.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.FactorGrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Turns session attributes into the bytes stored by the session store (SessionConfig), and back.
+//
+// Every logged-in session holds the security context, and every request reads it, so it gets a format of its own:
+// the username and the authorities, a few dozen bytes instead of the Java serialization of SecurityContextImpl,
+// the token, the User and its authorities. The login-time WebAuthenticationDetails (IP + old session id) are dropped;
+// nothing reads them.
+// Decoding goes through a cache keyed by those bytes, so a session whose login has been seen before costs
+// no deserialization at all. The cache is keyed by content, so it can't serve a stale login.
+// Anything else (flash attributes, a context we don't recognise) falls back to Java serialization.
+public class SessionAttributeCodec {
+
+    static final byte JAVA = 0;
+    static final byte SECURITY_CONTEXT = 1;
+
+    private static final byte SIMPLE_AUTHORITY = 0;
+    private static final byte FACTOR_AUTHORITY = 1;
+
+    static final int MAX_CACHED_LOGINS = 10_000;
+    static final Duration CACHE_TTL = Duration.ofHours(1);
+
+    private final SerializingConverter javaSerializer = new SerializingConverter();
+    private final DeserializingConverter javaDeserializer;
+
+    private final Cache<ByteBuffer, Authentication> logins = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_LOGINS)
+            .expireAfterAccess(CACHE_TTL)
+            .build();
+
+    public SessionAttributeCodec(ClassLoader classLoader) {
+        this.javaDeserializer = new DeserializingConverter(classLoader);
+    }
+
+    // --- WRITE ---
+
+    public byte[] serialize(Object value) {
+        if (value instanceof SecurityContextImpl context && isCompact(context.getAuthentication())) {
+            return writeLogin((UsernamePasswordAuthenticationToken) context.getAuthentication());
+        }
+        byte[] java = javaSerializer.convert(value);
+        byte[] tagged = new byte[java.length + 1];
+        tagged[0] = JAVA;
+        System.arraycopy(java, 0, tagged, 1, java.length);
+        return tagged;
+    }
+
+    // Only the exact shape form login produces; a subclass could carry state we would lose
+    private static boolean isCompact(Authentication authentication) {
+        return authentication != null
+                && authentication.getClass() == UsernamePasswordAuthenticationToken.class
+                && authentication.isAuthenticated()
+                && authentication.getCredentials() == null
+                && authentication.getPrincipal() instanceof User user
+                && user.getClass() == User.class
+                && user.isEnabled() && user.isAccountNonExpired() && user.isAccountNonLocked() && user.isCredentialsNonExpired()
+                && isCompact(user.getAuthorities())
+                && isCompact(authentication.getAuthorities());
+    }
+
+    private static boolean isCompact(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream().allMatch(authority -> authority.getClass() == SimpleGrantedAuthority.class
+                || authority.getClass() == FactorGrantedAuthority.class);
+    }
+
+    private static byte[] writeLogin(UsernamePasswordAuthenticationToken token) {
+        User user = (User) token.getPrincipal();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(SECURITY_CONTEXT);
+            out.writeUTF(user.getUsername());
+            writeAuthorities(out, user.getAuthorities());
+            writeAuthorities(out, token.getAuthorities());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeAuthorities(DataOutputStream out, Collection<? extends GrantedAuthority> authorities) throws IOException {
+        out.writeShort(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            if (authority instanceof FactorGrantedAuthority factor) {
+                out.writeByte(FACTOR_AUTHORITY);
+                out.writeUTF(factor.getAuthority());
+                out.writeLong(factor.getIssuedAt().getEpochSecond());
+                out.writeInt(factor.getIssuedAt().getNano());
+            } else {
+                out.writeByte(SIMPLE_AUTHORITY);
+                out.writeUTF(authority.getAuthority());
+            }
+        }
+    }
+
+    // --- READ ---
+
+    public Object deserialize(byte[] bytes) {
+        if (bytes.length > 0 && bytes[0] == SECURITY_CONTEXT) {
+            // A new context every time (logout clears it in place); the authentication itself is immutable
+            return new SecurityContextImpl(logins.get(ByteBuffer.wrap(bytes), key -> readLogin(bytes)));
+        }
+        if (bytes.length > 0 && bytes[0] == JAVA) {
+            return javaDeserializer.convert(copyWithoutTag(bytes));
+        }
+        throw new IllegalArgumentException("Unknown session attribute format " + (bytes.length > 0 ? bytes[0] : "(empty)"));
+    }
+
+    private static byte[] copyWithoutTag(byte[] bytes) {
+        byte[] java = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 1, java, 0, java.length);
+        return java;
+    }
+
+    private static Authentication readLogin(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            String username = in.readUTF();
+            List<GrantedAuthority> userAuthorities = readAuthorities(in);
+            List<GrantedAuthority> tokenAuthorities = readAuthorities(in);
+
+            User user = new User(username, "", userAuthorities);
+            // Same state as after login: the password is erased
+            user.eraseCredentials();
+            return UsernamePasswordAuthenticationToken.authenticated(user, null, tokenAuthorities);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<GrantedAuthority> readAuthorities(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        List<GrantedAuthority> authorities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte kind = in.readByte();
+            String authority = in.readUTF();
+            if (kind == FACTOR_AUTHORITY) {
+                Instant issuedAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                authorities.add(FactorGrantedAuthority.withAuthority(authority).issuedAt(issuedAt).build());
+            } else {
+                authorities.add(new SimpleGrantedAuthority(authority));
+            }
+        }
+        return authorities;
+    }
+}
@@ -0,0 +1,73 @@
+package com.rubayet.school.config;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Where HTTP sessions live, chosen with school.session.store:
+//   jdbc   (default) Spring Session JDBC: sessions are rows in the app's PostgreSQL (migration V5), so any
+//          instance can serve any user. The load balancer needs no sticky sessions, and draining or restarting
+//          an instance logs nobody out.
+//   memory a map inside this JVM, for running without the session tables (H2 benchmarks, a quick local run).
+//          Same filter and cookie as jdbc, but attributes are kept as objects, and sessions die with the JVM.
+// Attributes are written with SessionAttributeCodec (compact security context + cached decoding), and the
+// store's own SQL is kept out of the per-request counts (UncountedSessionRepository).
+@Configuration
+public class SessionConfig implements BeanClassLoaderAware {
+
+    private ClassLoader classLoader;
+
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    // Picked up by name by Spring Session JDBC for reading / writing the attribute bytes
+    @Bean
+    public ConversionService springSessionConversionService() {
+        SessionAttributeCodec codec = new SessionAttributeCodec(classLoader);
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, codec::serialize);
+        conversionService.addConverter(byte[].class, Object.class, codec::deserialize);
+        return conversionService;
+    }
+
+    // static: BeanPostProcessors are created before everything else
+    @Bean
+    static BeanPostProcessor uncountedSessionRepositoryPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JdbcIndexedSessionRepository repository) {
+                    return new UncountedSessionRepository<>(repository);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Spring Boot's JDBC session store backs off when another SessionRepository exists
+    @Configuration
+    @ConditionalOnProperty(name = "school.session.store", havingValue = "memory")
+    @EnableSpringHttpSession
+    static class InMemorySessionConfig {
+
+        @Bean
+        MapSessionRepository sessionRepository(@Value("${server.servlet.session.timeout:30m}") Duration timeout) {
+            MapSessionRepository repository = new MapSessionRepository(new ConcurrentHashMap<>());
+            repository.setDefaultMaxInactiveInterval(timeout);
+            return repository;
+        }
+    }
+}
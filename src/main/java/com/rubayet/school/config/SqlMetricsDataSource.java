@@ -0,0 +1,118 @@
+package com.rubayet.school.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Times every SQL statement the application runs.
+//
+// - adds each statement to the current request's RequestSqlStats (count + time per request),
+//   and each commit / rollback to its transaction count
+// - logs statements slower than "slowThreshold", a "sampleRate" fraction of them, so a slow
+//   database can't flood the log the way show-sql did
+//
+// A batch (executeBatch) is one round trip, so it counts as one statement.
+public class SqlMetricsDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMetricsDataSource.class);
+
+    // Longer statements are cut in the log (IN lists, batch inserts)
+    private static final int MAX_LOGGED_SQL = 1000;
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+
+    public SqlMetricsDataSource(DataSource target, Duration slowThreshold, double sampleRate) {
+        super(target);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    // Connection whose statements are timed
+    private Connection timed(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "createStatement":
+                            return timed((Statement) invoke(target, method, args), Statement.class, null);
+                        case "prepareStatement":
+                            return timed((Statement) invoke(target, method, args), PreparedStatement.class, (String) args[0]);
+                        case "prepareCall":
+                            return timed((Statement) invoke(target, method, args), CallableStatement.class, (String) args[0]);
+                        case "commit", "rollback":
+                            Object result = invoke(target, method, args);
+                            if (args == null) { // not rollback(Savepoint): that doesn't end the transaction
+                                RequestSqlStats.recordTransaction();
+                            }
+                            return result;
+                        default:
+                            return invoke(target, method, args);
+                    }
+                });
+    }
+
+    // Statement whose execute* calls are timed. "preparedSql" is null for plain Statements (the SQL comes with execute).
+    private Statement timed(Statement target, Class<? extends Statement> type, String preparedSql) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch":
+                            long start = System.nanoTime();
+                            try {
+                                return invoke(target, method, args);
+                            } finally {
+                                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                                recordStatement(sql, System.nanoTime() - start);
+                            }
+                        default:
+                            return invoke(target, method, args);
+                    }
+                });
+    }
+
+    void recordStatement(String sql, long elapsedNanos) {
+        RequestSqlStats.record(elapsedNanos);
+        if (elapsedNanos >= slowThresholdNanos && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            String shown = sql == null ? "(batch)" : sql.length() > MAX_LOGGED_SQL ? sql.substring(0, MAX_LOGGED_SQL) + "..." : sql;
+            log.warn("Slow SQL ({} ms): {}", elapsedNanos / 1_000_000, shown);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
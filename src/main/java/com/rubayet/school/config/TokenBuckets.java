@@ -0,0 +1,90 @@
+package com.rubayet.school.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One token bucket per key (a username, a client address): "burst" attempts at once, then one every "interval".
+//
+// Each bucket is a single AtomicLong (the time at which it will be full again) updated with compare-and-set,
+// so concurrent logins never wait on a lock. A bucket that is full again holds nothing worth keeping, so it
+// expires then. Past maxKeys (someone cycling through keys), Caffeine evicts the least used buckets one by one:
+// a bucket being hammered is kept, and memory stays bounded however many keys are tried.
+public class TokenBuckets {
+
+    private final Cache<String, AtomicLong> fullAtByKey;
+    private final long intervalMillis;
+    private final long burstMillis; // how far ahead of "now" a bucket may be booked before it is empty
+    private final Clock clock;
+
+    public TokenBuckets(int burst, Duration interval, int maxKeys) {
+        this(burst, interval, maxKeys, Clock.systemUTC());
+    }
+
+    TokenBuckets(int burst, Duration interval, int maxKeys, Clock clock) {
+        if (burst < 1 || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("burst must be >= 1 and interval > 0");
+        }
+        this.intervalMillis = interval.toMillis();
+        this.burstMillis = (burst - 1) * intervalMillis;
+        this.clock = clock;
+        this.fullAtByKey = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfter(new UntilFull())
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                // Eviction bookkeeping on the calling thread, so the use counts are up to date when a key is evicted
+                .executor(Runnable::run)
+                .build();
+    }
+
+    // Keeps a bucket until it is full again. Called before the take, which moves "full at" at most one
+    // interval past max(fullAt, now): so one interval is added on top.
+    private class UntilFull implements Expiry<String, AtomicLong> {
+
+        private long untilFull(AtomicLong fullAt) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(fullAt.get() - clock.millis(), 0) + intervalMillis);
+        }
+
+        @Override
+        public long expireAfterCreate(String key, AtomicLong fullAt, long currentTime) {
+            return untilFull(fullAt);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, AtomicLong fullAt, long currentTime, long currentDuration) {
+            return untilFull(fullAt);
+        }
+
+        @Override
+        public long expireAfterRead(String key, AtomicLong fullAt, long currentTime, long currentDuration) {
+            return untilFull(fullAt);
+        }
+    }
+
+    // Takes a token for the key. Returns 0 if there was one, otherwise how many milliseconds until there is.
+    public long tryTake(String key) {
+        long now = clock.millis();
+        AtomicLong fullAt = fullAtByKey.get(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long current = fullAt.get();
+            long start = Math.max(current, now);
+            if (start - now > burstMillis) {
+                return start - now - burstMillis;
+            }
+            if (fullAt.compareAndSet(current, start + intervalMillis)) {
+                return 0;
+            }
+        }
+    }
+
+    long size() {
+        fullAtByKey.cleanUp();
+        return fullAtByKey.estimatedSize();
+    }
+}
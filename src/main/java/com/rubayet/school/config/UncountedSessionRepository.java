@@ -0,0 +1,63 @@
+package com.rubayet.school.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.util.Map;
+
+// Wraps the JDBC session store so its statements are not counted as the request's own SQL.
+//
+// Every request with a session cookie loads the session and saves its last-access time: the same two
+// statements whatever the page does. Counting them would put every page two statements over its @QueryBudget,
+// and the budgets are there to catch what the page itself does (N+1 queries).
+// The statements still show up in the connection pool metrics and in the database.
+//
+// This wrapper is the bean the container holds, so it passes destroy() on: the JDBC store stops its
+// expired-session cleanup scheduler there when the application shuts down.
+public class UncountedSessionRepository<S extends Session> implements FindByIndexNameSessionRepository<S>, DisposableBean {
+
+    private final FindByIndexNameSessionRepository<S> delegate;
+
+    public UncountedSessionRepository(FindByIndexNameSessionRepository<S> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public S createSession() {
+        return delegate.createSession();
+    }
+
+    @Override
+    public void save(S session) {
+        RequestSqlStats.uncounted(() -> {
+            delegate.save(session);
+            return null;
+        });
+    }
+
+    @Override
+    public S findById(String id) {
+        return RequestSqlStats.uncounted(() -> delegate.findById(id));
+    }
+
+    @Override
+    public void deleteById(String id) {
+        RequestSqlStats.uncounted(() -> {
+            delegate.deleteById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, S> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        return RequestSqlStats.uncounted(() -> delegate.findByIndexNameAndIndexValue(indexName, indexValue));
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+}
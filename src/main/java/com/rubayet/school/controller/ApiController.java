@@ -0,0 +1,117 @@
+package com.rubayet.school.controller;
+
+import com.rubayet.school.config.QueryBudget;
+import com.rubayet.school.dto.CourseSummary;
+import com.rubayet.school.dto.DepartmentOption;
+import com.rubayet.school.dto.RosterVersion;
+import com.rubayet.school.dto.StudentPage;
+import com.rubayet.school.dto.StudentSort;
+import com.rubayet.school.dto.StudentSummary;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.DepartmentRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.service.StudentDirectoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// Read-only JSON API for mobile clients and integrations.
+//
+// Every response is a flat DTO (never an entity) and carries a strong ETag built from row versions.
+// A client that sends it back in If-None-Match gets a 304 with no body: only the version is read,
+// the data itself is not loaded or serialized.
+// Same access rules as the pages: any logged-in user.
+@RestController
+@RequestMapping("/api")
+public class ApiController {
+
+    // Clients may keep a copy but must revalidate it (cheap, see above) before using it
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private StudentDirectoryService studentDirectoryService;
+
+    // 1. All departments (cached list, so the ETag is a hash of it)
+    @QueryBudget(1)
+    @GetMapping("/departments")
+    public ResponseEntity<List<DepartmentOption>> departments(WebRequest request) {
+        List<DepartmentOption> departments = departmentRepository.findAllOptions();
+        return conditional(request, "departments-" + departmentsTag(), () -> departments);
+    }
+
+    // 2. Course catalog
+    @QueryBudget(2)
+    @GetMapping("/courses")
+    public ResponseEntity<List<CourseSummary>> courses(WebRequest request) {
+        String etag = "courses-" + courseRepository.findTableVersion().tag();
+        return conditional(request, etag, courseRepository::findCatalog);
+    }
+
+    // 3. One course
+    @QueryBudget(2)
+    @GetMapping("/courses/{id}")
+    public ResponseEntity<CourseSummary> course(@PathVariable Long id, WebRequest request) {
+        Long version = courseRepository.findVersion(id);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(request, "course-" + id + "-" + version, () -> courseRepository.findSummary(id));
+    }
+
+    // 4. Students enrolled in a course (enroll / unenroll bump the course version)
+    // Rows show each student's name, email and department, so their versions and the departments are in the ETag too
+    @QueryBudget(3)
+    @GetMapping("/courses/{id}/enrollments")
+    public ResponseEntity<List<StudentSummary>> enrollments(@PathVariable Long id, WebRequest request) {
+        RosterVersion version = courseRepository.findRosterVersion(id);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(request, "enrollments-" + id + "-" + version.tag() + "-" + departmentsTag(),
+                () -> studentRepository.findSummariesByCourse(id));
+    }
+
+    // 5. Student directory, 50 per page, same keyset paging as the students page (?after=<last id>)
+    // Rows show the department name, so a renamed department changes the ETag too
+    @QueryBudget(3)
+    @GetMapping("/students")
+    public ResponseEntity<StudentPage> students(@RequestParam(required = false) Long departmentId,
+                                                @RequestParam(required = false) Long after,
+                                                WebRequest request) {
+        String etag = "students-" + studentRepository.findTableVersion().tag() + "-" + departmentsTag();
+        return conditional(request, etag, () -> studentDirectoryService.findPage(departmentId, StudentSort.ID, after, null));
+    }
+
+    // 6. One student
+    @QueryBudget(3)
+    @GetMapping("/students/{id}")
+    public ResponseEntity<StudentSummary> student(@PathVariable Long id, WebRequest request) {
+        Long version = studentRepository.findVersion(id);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(request, "student-" + id + "-" + version + "-" + departmentsTag(),
+                () -> studentRepository.findSummary(id));
+    }
+
+    // Departments have no version column, but the list is cached and tiny: hash it (no query on a cache hit)
+    private String departmentsTag() {
+        return Integer.toHexString(departmentRepository.findAllOptions().hashCode());
+    }
+
+    // 304 (headers only) if the client already has this version, otherwise 200 with the body.
+    // checkNotModified also writes the ETag header, on both paths.
+    private static <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(body.get());
+    }
+}
@@ -1,15 +1,10 @@
 package com.rubayet.school.controller;
 
-import com.rubayet.school.model.Department;
-import com.rubayet.school.model.Student;
-import com.rubayet.school.model.Teacher;
+import com.rubayet.school.config.QueryBudget;
 import com.rubayet.school.model.User;
 import com.rubayet.school.repository.DepartmentRepository;
-import com.rubayet.school.repository.StudentRepository;
-import com.rubayet.school.repository.TeacherRepository;
-import com.rubayet.school.repository.UserRepository;
+import com.rubayet.school.service.RegistrationService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,58 +13,25 @@ import org.springframework.web.bind.annotation.PostMapping;
 @Controller
 public class AuthController {
 
-    @Autowired private UserRepository userRepository;
-    @Autowired private StudentRepository studentRepository;
-    @Autowired private TeacherRepository teacherRepository;
     @Autowired private DepartmentRepository departmentRepository;
-    @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private RegistrationService registrationService;
 
     // 1. Show the Sign-Up Form
+    @QueryBudget(1)
     @GetMapping("/signup")
     public String showSignupForm(Model model) {
         model.addAttribute("user", new User());
-        model.addAttribute("departments", departmentRepository.findAll());
+        model.addAttribute("departments", departmentRepository.findAllOptions());
         return "signup";
     }
 
     // 2. Process the Sign-Up
+    // The login and its Student / Teacher profile are saved together, in one transaction (RegistrationService).
+    // Budget: 2 INSERTs + the department list when its cache is cold.
+    @QueryBudget(3)
     @PostMapping("/register")
     public String registerUser(User user, @org.springframework.web.bind.annotation.RequestParam(required = false) Long departmentId) {
-        // A. Encode the password (Security Best Practice)
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-
-        // B. Ensure the role has the "ROLE_" prefix
-        if (!user.getRole().startsWith("ROLE_")) {
-            user.setRole("ROLE_" + user.getRole());
-        }
-
-        // C. Save the User Login Info first
-        User savedUser = userRepository.save(user);
-
-        // D. Create the Linked Profile (Student or Teacher)
-        if (user.getRole().equals("ROLE_STUDENT")) {
-            Student student = new Student();
-            student.setName(user.getUsername());
-            student.setEmail("N/A"); // Placeholder email
-            student.setUser(savedUser); // <--- LINKING HAPPENS HERE
-            
-            // Set department if provided
-            if (departmentId != null) {
-                Department department = departmentRepository.findById(departmentId).orElse(null);
-                if (department != null) {
-                    student.setDepartment(department);
-                }
-            }
-            
-            studentRepository.save(student);
-        }
-        else if (user.getRole().equals("ROLE_TEACHER")) {
-            Teacher teacher = new Teacher();
-            teacher.setName(user.getUsername());
-            teacher.setUser(savedUser); // <--- LINKING HAPPENS HERE
-            teacherRepository.save(teacher);
-        }
-
+        registrationService.register(user, departmentId);
         return "redirect:/login"; // Success! Go to log in
     }
-}
\ No newline at end of file
+}
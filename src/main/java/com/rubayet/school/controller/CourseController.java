@@ -1,88 +1,214 @@
 package com.rubayet.school.controller;
 
+import com.rubayet.school.config.QueryBudget;
+import com.rubayet.school.dto.CourseSearchPage;
+import com.rubayet.school.dto.CourseSummary;
+import com.rubayet.school.dto.EnrollmentStatus;
+import com.rubayet.school.dto.UserProfile;
 import com.rubayet.school.model.Course;
-import com.rubayet.school.model.Student;
+import com.rubayet.school.model.MeetingSlot;
 import com.rubayet.school.model.Teacher;
-import com.rubayet.school.model.User;
 import com.rubayet.school.repository.CourseRepository;
-import com.rubayet.school.repository.StudentRepository;
 import com.rubayet.school.repository.TeacherRepository;
-import com.rubayet.school.repository.UserRepository;
+import com.rubayet.school.service.CourseCardCache;
+import com.rubayet.school.service.CourseSearchService;
+import com.rubayet.school.service.EnrollmentResult;
+import com.rubayet.school.service.EnrollmentService;
+import com.rubayet.school.service.IdempotencyKeyStore;
+import com.rubayet.school.service.TimetableIndex;
+import com.rubayet.school.service.UserProfileService;
+import com.rubayet.school.service.WaitlistPromoter;
+import com.rubayet.school.service.WaitlistService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.security.Principal;
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.function.Supplier;
 
 @Controller
 @RequestMapping("/courses")
 public class CourseController {
 
     @Autowired private CourseRepository courseRepository;
-    @Autowired private UserRepository userRepository;
+    @Autowired private UserProfileService userProfileService;
     @Autowired private TeacherRepository teacherRepository;
-    @Autowired private StudentRepository studentRepository;
+    @Autowired private EnrollmentService enrollmentService;
+    @Autowired private IdempotencyKeyStore idempotencyKeyStore;
+    @Autowired private CourseSearchService courseSearchService;
+    @Autowired private CourseCardCache courseCardCache;
+    @Autowired private TimetableIndex timetableIndex;
+    @Autowired private WaitlistService waitlistService;
+    @Autowired private WaitlistPromoter waitlistPromoter;
 
+    // Empty meeting rows on the "Create Course" form
+    private static final int MEETING_ROWS = 3;
+
+    // 1. Course Catalog
+    @QueryBudget(3)
     @GetMapping
     public String listCourses(Model model, Principal principal) {
-        model.addAttribute("courses", courseRepository.findAll());
-
-        // If a user is logged in, send their Student profile to the view
-        if (principal != null) {
-            User user = userRepository.findByUsername(principal.getName());
-            // Check if they are a student before adding
-            if (user.getRole().equals("ROLE_STUDENT")) {
-                Student student = studentRepository.findByUser(user);
-                model.addAttribute("student", student);
-            }
-        }
+        addCourses(model, courseRepository.findCatalog());
+        addEnrolledCourseIds(model, principal);
+        return "courses";
+    }
 
+    // 2. Search the catalog (title, description, teacher name): 20 best matches per page
+    @QueryBudget(4)
+    @GetMapping("/search")
+    public String searchCourses(@RequestParam(defaultValue = "") String q,
+                                @RequestParam(defaultValue = "0") int page,
+                                @RequestParam(defaultValue = "false") boolean fuzzy,
+                                Model model,
+                                Principal principal) {
+        if (q.isBlank()) {
+            return "redirect:/courses";
+        }
+        CourseSearchPage results = courseSearchService.search(q, page, fuzzy);
+        addCourses(model, results.courses());
+        model.addAttribute("search", results);
+        addEnrolledCourseIds(model, principal);
         return "courses";
     }
 
-    // 2. Show "Create Course" Form (Teachers Only)
+    // The cards' static HTML comes from the fragment cache; the view only draws the buttons itself
+    private void addCourses(Model model, List<CourseSummary> courses) {
+        model.addAttribute("courses", courses);
+        model.addAttribute("cards", courseCardCache.render(courses));
+    }
+
+    // For students, send the IDs of their courses so the view can do an O(1) "enrolled?" check,
+    // and their places on waitlists (same query).
+    // The profile (role + student id) comes from the cache, so we don't need to load the User for it.
+    private void addEnrolledCourseIds(Model model, Principal principal) {
+        EnrollmentStatus status = EnrollmentStatus.NONE;
+        UserProfile profile = userProfileService.currentProfile(principal);
+        if (profile != null && profile.isStudent() && profile.studentId() != null) {
+            status = waitlistService.statusOf(profile.studentId());
+        }
+        model.addAttribute("enrolledCourseIds", status.enrolledCourseIds());
+        model.addAttribute("waitlistPositions", status.waitlistPositions());
+    }
+
+    // 3. Show "Create Course" Form (Teachers Only)
     @GetMapping("/new")
     public String showCreateForm(Model model) {
-        model.addAttribute("course", new Course());
+        return courseForm(model, new Course());
+    }
+
+    private static String courseForm(Model model, Course course) {
+        while (course.getMeetings().size() < MEETING_ROWS) {
+            course.getMeetings().add(new MeetingSlot());
+        }
+        model.addAttribute("course", course);
+        model.addAttribute("days", DayOfWeek.values());
         return "create_course";
     }
 
-    // 3. Save New Course (Teachers Only)
+    // 4. Save New Course (Teachers Only)
     @PostMapping("/save")
-    public String saveCourse(@ModelAttribute Course course, Principal principal) {
-        // Find the currently logged-in Teacher
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username);
-        Teacher teacher = teacherRepository.findByUser(user); // We need to add this method to Repo!
+    public String saveCourse(@ModelAttribute Course course, Principal principal, Model model) {
+        // Rows left empty are dropped; a half-filled row or one that ends before it starts is sent back
+        course.getMeetings().removeIf(MeetingSlot::isBlank);
+        if (!course.getMeetings().stream().allMatch(MeetingSlot::isValid)) {
+            model.addAttribute("error", "Each meeting needs a day, and an end time after its start time.");
+            return courseForm(model, course);
+        }
+
+        // Find the currently logged-in Teacher (id comes from the profile cache, no query needed)
+        UserProfile profile = userProfileService.currentProfile(principal);
+        Teacher teacher = profile != null && profile.teacherId() != null
+                ? teacherRepository.getReferenceById(profile.teacherId())
+                : null;
 
         course.setTeacher(teacher); // Set the teacher as the creator
+        course.setSeatsTaken(0);    // A new course starts empty, whatever the form sent
         courseRepository.save(course);
+        courseCardCache.evict(course.getId()); // an edit posts the id of an existing course
+        timetableIndex.evictCourse(course.getId()); // ... and may move its meetings
+        waitlistPromoter.seatMayBeFree(course.getId()); // ... or add seats
         return "redirect:/courses";
     }
 
-    // 4. Toggle Enrollment (Enroll / Unenroll)
-    @PostMapping("/enroll/{id}")
-    public String toggleEnrollment(@PathVariable Long id, Principal principal) {
-        // Find the Course
-        Course course = courseRepository.findById(id).orElseThrow();
-
-        // Find the logged-in Student
-        User user = userRepository.findByUsername(principal.getName());
-        Student student = studentRepository.findByUser(user);
-
-        // CHECK: Is the student already enrolled?
-        if (student.getCourses().contains(course)) {
-            // YES -> UNENROLL (Remove the course)
-            student.getCourses().remove(course);
-        } else {
-            // NO -> ENROLL (Add the course)
-            student.getCourses().add(course);
+    // 5. Enroll in a course (Students Only)
+    // The hidden "idempotencyKey" form field makes a double-click or a browser retry count as one request.
+    // Budget: the student's timetable and the seat count when they are not cached yet, the INSERT,
+    // the timetable check in the transaction, the seat UPDATE.
+    @QueryBudget(5)
+    @PostMapping("/{id}/enroll")
+    public String enroll(@PathVariable Long id,
+                         @RequestParam(required = false) String idempotencyKey,
+                         Principal principal,
+                         RedirectAttributes redirectAttributes) {
+        EnrollmentResult result = onFirstSubmission(principal, idempotencyKey,
+                () -> enrollmentService.enroll(principal.getName(), id));
+        if (result == EnrollmentResult.FULL) {
+            // Instead of retrying: the card offers the waitlist, even if the catalog still shows a free seat
+            redirectAttributes.addFlashAttribute("error", "Sorry, this course is full. Join the waitlist to get the next free seat.");
+            redirectAttributes.addFlashAttribute("waitlistOffer", id);
+        } else if (result == EnrollmentResult.CONFLICT) {
+            redirectAttributes.addFlashAttribute("error", "This course meets at the same time as one of your courses.");
+        } else if (result == EnrollmentResult.NOT_FOUND) {
+            redirectAttributes.addFlashAttribute("error", "This course no longer exists.");
         }
+        return "redirect:/courses";
+    }
 
-        // Save changes to update the 'student_courses' table
-        studentRepository.save(student);
+    // 6. Unenroll from a course (Students Only)
+    @QueryBudget(2)
+    @PostMapping("/{id}/unenroll")
+    public String unenroll(@PathVariable Long id,
+                           @RequestParam(required = false) String idempotencyKey,
+                           Principal principal) {
+        onFirstSubmission(principal, idempotencyKey, () -> enrollmentService.unenroll(principal.getName(), id));
+        return "redirect:/courses";
+    }
+
+    // 7. Join the waitlist of a full course (Students Only)
+    // Budget: the INSERT and the position query, in one transaction.
+    @QueryBudget(2)
+    @PostMapping("/{id}/waitlist")
+    public String joinWaitlist(@PathVariable Long id,
+                               @RequestParam(required = false) String idempotencyKey,
+                               Principal principal,
+                               RedirectAttributes redirectAttributes) {
+        Integer position = onFirstSubmission(principal, idempotencyKey, () -> waitlistService.join(principal.getName(), id));
+        if (position != null && position > 0) {
+            redirectAttributes.addFlashAttribute("message",
+                    "You are #" + position + " on the waitlist. You will be enrolled when a seat frees up.");
+        }
+        return "redirect:/courses";
+    }
 
+    // 8. Leave a waitlist (Students Only)
+    @QueryBudget(1)
+    @PostMapping("/{id}/waitlist/leave")
+    public String leaveWaitlist(@PathVariable Long id,
+                                @RequestParam(required = false) String idempotencyKey,
+                                Principal principal) {
+        onFirstSubmission(principal, idempotencyKey, () -> waitlistService.leave(principal.getName(), id));
         return "redirect:/courses";
     }
-}
\ No newline at end of file
+
+    // Runs "write" and returns its result, or returns null without running it if the key was already used.
+    // A write that fails forgets the key again, so the retry of a failed request isn't taken for a duplicate.
+    private <T> T onFirstSubmission(Principal principal, String idempotencyKey, Supplier<T> write) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return write.get(); // no key sent: enroll/unenroll are idempotent on their own anyway
+        }
+        String key = principal.getName() + ":" + idempotencyKey;
+        if (!idempotencyKeyStore.firstUse(key)) {
+            return null;
+        }
+        try {
+            return write.get();
+        } catch (RuntimeException e) {
+            idempotencyKeyStore.forget(key);
+            throw e;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.rubayet.school.controller;
 
+import com.rubayet.school.config.QueryBudget;
+import com.rubayet.school.dto.DepartmentStats;
 import com.rubayet.school.model.Department;
 import com.rubayet.school.repository.DepartmentRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.repository.TeacherRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -16,18 +20,24 @@ public class DepartmentController {
     @Autowired
     private DepartmentRepository departmentRepository;
 
-    // 1. List all departments
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    // 1. List all departments with their student / teacher / course / enrollment counts (one grouped query)
+    @QueryBudget(1)
     @GetMapping
     public String listDepartments(Model model) {
-        List<Department> departments = departmentRepository.findAll();
+        List<DepartmentStats> departments = departmentRepository.findAllStats();
         model.addAttribute("departments", departments);
         return "departments";
     }
 
-    // Check if department has students
-    private boolean hasDependentStudents(Long deptId) {
-        Department dept = departmentRepository.findById(deptId).orElse(null);
-        return dept != null && dept.getStudents() != null && !dept.getStudents().isEmpty();
+    // Check if anyone still belongs to the department (two EXISTS queries, no collection is loaded)
+    private boolean hasDependents(Long deptId) {
+        return studentRepository.existsByDepartmentId(deptId) || teacherRepository.existsByDepartmentId(deptId);
     }
 
     // 2. Show the "Add Department" Form
@@ -47,11 +57,11 @@ public class DepartmentController {
     // 4. Delete a Department
     @GetMapping("/delete/{id}")
     public String deleteDepartment(@PathVariable Long id, Model model) {
-        // Check if department has students
-        if (hasDependentStudents(id)) {
-            List<Department> departments = departmentRepository.findAll();
+        // Check if department has students or teachers
+        if (hasDependents(id)) {
+            List<DepartmentStats> departments = departmentRepository.findAllStats();
             model.addAttribute("departments", departments);
-            model.addAttribute("error", "Cannot delete department! It has students assigned. Please reassign students first.");
+            model.addAttribute("error", "Cannot delete department! It has students or teachers assigned. Please reassign them first.");
             return "departments";
         }
         
@@ -0,0 +1,122 @@
+package com.rubayet.school.controller;
+
+import com.rubayet.school.service.ExportService;
+import com.rubayet.school.service.ExportService.Format;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Whole-school downloads for registrars: /export/students.csv, /export/courses.ndjson, ...
+//
+// The file is written by a StreamingResponseBody on Spring's async executor, so no request thread
+// waits on it. Each export holds a database connection until it finishes, so only a few may run at once.
+@Controller
+@RequestMapping("/export")
+public class ExportController {
+
+    static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    // Seconds a client should wait before trying again when all export slots are busy
+    static final String RETRY_AFTER_SECONDS = "30";
+
+    @FunctionalInterface
+    interface Exporter {
+        void export(Format format, OutputStream out) throws IOException;
+    }
+
+    @Autowired
+    private ExportService exportService;
+
+    @Value("${school.export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    private Semaphore slots;
+
+    @PostConstruct
+    void createSlots() {
+        slots = new Semaphore(maxConcurrent);
+    }
+
+    // 1. Students with their department and username
+    @GetMapping("/students.{extension}")
+    public ResponseEntity<StreamingResponseBody> students(@PathVariable String extension, NativeWebRequest request) {
+        return export("students", extension, exportService::exportStudents, request);
+    }
+
+    // 2. Course catalog with teacher and seat counts
+    @GetMapping("/courses.{extension}")
+    public ResponseEntity<StreamingResponseBody> courses(@PathVariable String extension, NativeWebRequest request) {
+        return export("courses", extension, exportService::exportCourses, request);
+    }
+
+    // 3. Every enrollment (one line per student + course)
+    @GetMapping("/enrollments.{extension}")
+    public ResponseEntity<StreamingResponseBody> enrollments(@PathVariable String extension, NativeWebRequest request) {
+        return export("enrollments", extension, exportService::exportEnrollments, request);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, String extension, Exporter exporter,
+                                                         NativeWebRequest request) {
+        Format format = switch (extension) {
+            case "csv" -> Format.CSV;
+            case "ndjson" -> Format.NDJSON;
+            default -> null;
+        };
+        if (format == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!slots.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
+
+        // The slot is given back once: by the body when it finishes, or when the request ends without the body
+        // having started (async timeout, client gone, the executor rejected it). Whichever comes first claims it.
+        AtomicBoolean claimed = new AtomicBoolean();
+        StreamingResponseBody body = out -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return; // the request is already over
+            }
+            try {
+                exporter.export(format, out);
+            } finally {
+                slots.release();
+            }
+        };
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportController.class.getName(),
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest completed, Callable<T> task) {
+                        if (claimed.compareAndSet(false, true)) {
+                            slots.release();
+                        }
+                    }
+                });
+        return ResponseEntity.ok()
+                .contentType(format == Format.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(name + "." + extension).build().toString())
+                .body(body);
+    }
+}
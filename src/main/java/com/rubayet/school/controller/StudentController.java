@@ -1,9 +1,16 @@
 package com.rubayet.school.controller;
 
-import com.rubayet.school.model.Department;
+import com.rubayet.school.config.QueryBudget;
+import com.rubayet.school.dto.DepartmentOption;
+import com.rubayet.school.dto.StudentPage;
+import com.rubayet.school.dto.StudentSort;
+import com.rubayet.school.dto.TypeaheadMatch;
 import com.rubayet.school.model.Student;
 import com.rubayet.school.repository.DepartmentRepository;
 import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.service.StudentDirectoryService;
+import com.rubayet.school.service.StudentService;
+import com.rubayet.school.service.TypeaheadIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -21,53 +28,69 @@ public class StudentController {
     @Autowired
     private DepartmentRepository departmentRepository; // <--- NEW REPOSITORY INJECTED
 
-    // 1. List all students
+    @Autowired
+    private StudentDirectoryService studentDirectoryService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    // 1. List students (one page at a time, optionally filtered by department)
+    @QueryBudget(2)
     @GetMapping
-    public String listStudents(Model model) {
-        List<Student> students = studentRepository.findAll();
-        model.addAttribute("students", students);
+    public String listStudents(@RequestParam(required = false) Long departmentId,
+                               @RequestParam(defaultValue = "ID") StudentSort sort,
+                               @RequestParam(required = false) Long after,
+                               @RequestParam(required = false) String afterName,
+                               Model model) {
+        StudentPage page = studentDirectoryService.findPage(departmentId, sort, after, afterName);
+        model.addAttribute("students", page.students());
+        model.addAttribute("page", page);
+        model.addAttribute("departmentId", departmentId);
+        model.addAttribute("sort", sort);
+        model.addAttribute("departments", departmentRepository.findAllOptions());
         return "students";
     }
 
     // 2. Show the "Add Student" Form
+    @QueryBudget(1)
     @GetMapping("/new")
     public String createStudentForm(Model model) {
         Student student = new Student();
-        List<Department> departments = departmentRepository.findAll();
+        List<DepartmentOption> departments = departmentRepository.findAllOptions();
         model.addAttribute("student", student);
         model.addAttribute("departments", departments);
         return "create_student";
     }
 
     // 3. Save the Student (UPDATED METHOD)
+    // One INSERT in one transaction; the department is only linked (see StudentService).
+    // Budget: the INSERT + the department list when its cache is cold.
+    @QueryBudget(2)
     @PostMapping
     public String saveStudent(@ModelAttribute("student") Student student,
                               @RequestParam("departmentId") Long departmentId) {
-
-        // Fetch the department by ID
-        Department department = departmentRepository.findById(departmentId).orElse(null);
-
-        if (department != null) {
-            student.setDepartment(department);
-            studentRepository.save(student);
-        }
-
+        studentService.create(student.getName(), student.getEmail(), departmentId);
         return "redirect:/students";
     }
 
-    // 4. Delete a Student
+    // 4. Delete a Student (with their enrollments and login), giving their seats back
+    @QueryBudget(5)
     @GetMapping("/delete/{id}")
     public String deleteStudent(@PathVariable Long id) {
-        studentRepository.deleteById(id);
+        studentService.delete(id);
         return "redirect:/students";
     }
 
     // 5. Show Edit Form (GET)
+    @QueryBudget(2)
     @GetMapping("/edit/{id}")
     public String showEditForm(@PathVariable Long id, Model model) {
         Student student = studentRepository.findById(id).orElse(null);
         if (student != null) {
-            List<Department> departments = departmentRepository.findAll();
+            List<DepartmentOption> departments = departmentRepository.findAllOptions();
             model.addAttribute("student", student);
             model.addAttribute("departments", departments);
             return "edit_student"; // We will create this file next!
@@ -76,29 +99,22 @@ public class StudentController {
     }
 
     // 6. Update Student (POST)
+    // SELECT + UPDATE in one transaction, written by dirty checking instead of save() (see StudentService).
+    // Budget: those two + the department list when its cache is cold.
+    @QueryBudget(3)
     @PostMapping("/{id}")
     public String updateStudent(@PathVariable Long id,
                                 @ModelAttribute("student") Student student,
                                 @RequestParam("departmentId") Long departmentId) {
-
-        // Find existing student
-        Student existingStudent = studentRepository.findById(id).orElse(null);
-
-        if (existingStudent != null) {
-            // Update basic fields
-            existingStudent.setName(student.getName());
-            existingStudent.setEmail(student.getEmail());
-
-            // Fetch and set department
-            Department department = departmentRepository.findById(departmentId).orElse(null);
-            if (department != null) {
-                existingStudent.setDepartment(department);
-            }
-
-            // Save updated student
-            studentRepository.save(existingStudent);
-        }
-
+        studentService.update(id, student.getName(), student.getEmail(), departmentId);
         return "redirect:/students";
     }
-}
\ No newline at end of file
+
+    // 7. Typeahead: students and teachers whose name or username starts with q (answered from memory, no SQL)
+    @QueryBudget(0)
+    @GetMapping("/typeahead")
+    @ResponseBody
+    public List<TypeaheadMatch> typeahead(@RequestParam(defaultValue = "") String q) {
+        return typeaheadIndex.lookup(q, TypeaheadIndex.MAX_RESULTS);
+    }
+}
@@ -0,0 +1,16 @@
+package com.rubayet.school.dto;
+
+import java.util.List;
+
+// One page (20 rows) of ranked course search results.
+// fuzzy = nothing matched the words exactly, these are the closest spellings (typo fallback).
+public record CourseSearchPage(String query,
+                               List<CourseSummary> courses,
+                               int page,
+                               boolean hasNext,
+                               boolean fuzzy) {
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.rubayet.school.dto;
+
+// Flat row for the course catalog: the course, its teacher's name, how many students are enrolled and the capacity.
+// Built by a JPQL constructor expression, so rosters are never loaded just to draw a card.
+// version is the course's @Version: it changes on every edit and every enroll / unenroll (CourseCardCache key).
+public record CourseSummary(Long id,
+                            String title,
+                            String description,
+                            String teacherName,
+                            int enrolledCount,
+                            Integer capacity,
+                            Long version) {
+
+    public boolean isFull() {
+        return capacity != null && enrolledCount >= capacity;
+    }
+}
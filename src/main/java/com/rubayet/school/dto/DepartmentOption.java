@@ -0,0 +1,6 @@
+package com.rubayet.school.dto;
+
+// Id + name of a department, as shown in drop-downs and lists.
+// This (not the Department entity) is what we cache: it is immutable and has no lazy collections.
+public record DepartmentOption(Long id, String name) {
+}
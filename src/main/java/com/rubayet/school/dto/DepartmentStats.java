@@ -0,0 +1,16 @@
+package com.rubayet.school.dto;
+
+// One row of the department overview.
+// courses = courses taught by the department's teachers, enrollments = seats taken in those courses.
+public record DepartmentStats(Long id,
+                              String name,
+                              long students,
+                              long teachers,
+                              long courses,
+                              long enrollments) {
+
+    // Students and teachers point at the department, so it can't be deleted while it has either
+    public boolean isDeletable() {
+        return students == 0 && teachers == 0;
+    }
+}
@@ -0,0 +1,9 @@
+package com.rubayet.school.dto;
+
+// One student_courses row with the names a registrar needs, for the enrollment export.
+public record EnrollmentRow(Long studentId,
+                            String studentName,
+                            String username,
+                            Long courseId,
+                            String courseTitle) {
+}
@@ -0,0 +1,11 @@
+package com.rubayet.school.dto;
+
+import java.util.Map;
+import java.util.Set;
+
+// The courses a student is in, and their place on each waitlist they joined (1 = next in line).
+// Read in one query for the catalog (WaitlistService.statusOf).
+public record EnrollmentStatus(Set<Long> enrolledCourseIds, Map<Long, Integer> waitlistPositions) {
+
+    public static final EnrollmentStatus NONE = new EnrollmentStatus(Set.of(), Map.of());
+}
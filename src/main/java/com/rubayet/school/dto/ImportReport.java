@@ -0,0 +1,12 @@
+package com.rubayet.school.dto;
+
+import java.util.List;
+
+// Result of a bulk account import: how many rows were read, how many accounts were created,
+// and why each rejected row was rejected.
+public record ImportReport(int totalRows, int imported, List<RowError> errors) {
+
+    // "line" is the line number in the uploaded file (the header is line 1)
+    public record RowError(int line, String username, String message) {
+    }
+}
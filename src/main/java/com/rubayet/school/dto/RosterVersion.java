@@ -0,0 +1,10 @@
+package com.rubayet.school.dto;
+
+// Fingerprint of a course's roster, used as its ETag: the course version (enroll / unenroll bump it) and the
+// sum of the enrolled students' versions (an edited name, email or department). Read by one aggregate query.
+public record RosterVersion(long courseVersion, long studentVersionSum) {
+
+    public String tag() {
+        return courseVersion + "." + studentVersionSum;
+    }
+}
@@ -0,0 +1,12 @@
+package com.rubayet.school.dto;
+
+// Capacity and seats taken of one course, read without loading the Course entity.
+public record SeatSnapshot(Integer capacity, int seatsTaken) {
+
+    public int freeSeats() {
+        if (capacity == null) {
+            return Integer.MAX_VALUE; // no limit
+        }
+        return Math.max(0, capacity - seatsTaken);
+    }
+}
@@ -0,0 +1,12 @@
+package com.rubayet.school.dto;
+
+import java.util.List;
+
+// One page of the student directory.
+// "last" is the final row of the page and acts as the cursor for the next one (null when there is no next page).
+public record StudentPage(List<StudentSummary> students, StudentSummary last) {
+
+    public boolean hasNext() {
+        return last != null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.rubayet.school.dto;
+
+// Sort orders supported by the keyset-paginated student directory.
+// Every order ends with the student id so the cursor is always unique.
+public enum StudentSort {
+    ID,
+    NAME
+}
@@ -0,0 +1,10 @@
+package com.rubayet.school.dto;
+
+// Flat row for the student directory.
+// Filled straight from a JPQL constructor expression, so no Student/Department/User entities are loaded.
+public record StudentSummary(Long id,
+                             String name,
+                             String email,
+                             String departmentName,
+                             String username) {
+}
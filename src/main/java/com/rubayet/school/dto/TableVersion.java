@@ -0,0 +1,11 @@
+package com.rubayet.school.dto;
+
+// Fingerprint of a whole table, used as the ETag of list responses: row count, sum of ids, sum of row versions.
+// An insert or delete changes the count and the id sum, an update bumps the version sum (@Version only goes up),
+// so the fingerprint changes whenever the table does. Computed by one aggregate query, nothing is loaded.
+public record TableVersion(long rows, long idSum, long versionSum) {
+
+    public String tag() {
+        return rows + "." + idSum + "." + versionSum;
+    }
+}
@@ -0,0 +1,11 @@
+package com.rubayet.school.dto;
+
+// One suggestion in the student/teacher typeahead.
+// username is null for students created without a login (admin "Add Student" form).
+public record TypeaheadMatch(Kind kind,
+                             Long id,
+                             String name,
+                             String username) {
+
+    public enum Kind { STUDENT, TEACHER }
+}
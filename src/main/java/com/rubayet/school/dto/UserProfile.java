@@ -0,0 +1,19 @@
+package com.rubayet.school.dto;
+
+// Everything we need to know about a logged-in user on a typical request:
+// their login, role and the id of their Student or Teacher profile (null if they don't have one).
+// No password hash: profiles are cached (UserProfileService), and logins read the hash from the database.
+public record UserProfile(Long userId,
+                          String username,
+                          String role,
+                          Long studentId,
+                          Long teacherId) {
+
+    public boolean isStudent() {
+        return "ROLE_STUDENT".equals(role);
+    }
+
+    public boolean isTeacher() {
+        return "ROLE_TEACHER".equals(role);
+    }
+}
@@ -3,6 +3,7 @@ package com.rubayet.school.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,12 +13,25 @@ import java.util.List;
 @Table(name = "courses")
 public class Course {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courses_seq")
+    @SequenceGenerator(name = "courses_seq", sequenceName = "courses_seq", allocationSize = 50)
     private Long id;
 
     private String title;
     private String description;
 
+    // Max number of students (null = no limit)
+    private Integer capacity;
+
+    // Number of enrolled students, kept in sync by EnrollmentService with one atomic UPDATE per enroll/unenroll
+    @Column(name = "seats_taken", nullable = false)
+    @ColumnDefault("0")
+    private int seatsTaken;
+
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     // A Course is taught by ONE Teacher
     @ManyToOne
     @JoinColumn(name = "teacher_id")
@@ -28,4 +42,10 @@ public class Course {
     @ManyToMany(mappedBy = "courses")
     @ToString.Exclude
     private List<Student> students = new ArrayList<>();
+
+    // When the course meets each week (conflict check on enroll: TimetableIndex)
+    @ElementCollection
+    @CollectionTable(name = "course_meetings", joinColumns = @JoinColumn(name = "course_id"))
+    @ToString.Exclude
+    private List<MeetingSlot> meetings = new ArrayList<>();
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.rubayet.school.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+// One weekly meeting of a course: day, start / end time (same day) and room
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeetingSlot {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false, length = 16)
+    private DayOfWeek day;
+
+    // "HH:mm", as sent by <input type="time">
+    @DateTimeFormat(pattern = "HH:mm")
+    @Column(name = "start_time", nullable = false)
+    private LocalTime start;
+
+    @DateTimeFormat(pattern = "HH:mm")
+    @Column(name = "end_time", nullable = false)
+    private LocalTime end;
+
+    private String room;
+
+    // A form row left empty
+    public boolean isBlank() {
+        return day == null && start == null && end == null && (room == null || room.isBlank());
+    }
+
+    public boolean isValid() {
+        return day != null && start != null && end != null && end.isAfter(start);
+    }
+}
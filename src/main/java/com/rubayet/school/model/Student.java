@@ -3,6 +3,7 @@ package com.rubayet.school.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
@@ -11,12 +12,18 @@ import java.util.List;
 @Table(name = "students")
 public class Student {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "students_seq")
+    @SequenceGenerator(name = "students_seq", sequenceName = "students_seq", allocationSize = 50)
     private Long id;
 
     private String name;
     private String email;
 
+    // Bumped by Hibernate on every update; the JSON API uses it as the ETag of the student
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     // --- NEW LINK TO USER (Login Info) ---
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
@@ -34,7 +41,10 @@ public class Student {
     @JoinTable(
             name = "student_courses",
             joinColumns = @JoinColumn(name = "student_id"),
-            inverseJoinColumns = @JoinColumn(name = "course_id")
+            inverseJoinColumns = @JoinColumn(name = "course_id"),
+            // A student can only be in a course once; enroll relies on this for ON CONFLICT DO NOTHING.
+            // In the migrated schema (V2) this is the table's primary key, with a reverse (course_id, student_id) index.
+            uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "course_id"})
     )
     @ToString.Exclude
     private List<Course> courses;
@@ -0,0 +1,40 @@
+package com.rubayet.school.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+// One student waiting for a seat in a full course; the id is their place in the queue.
+// Written and read with plain SQL (WaitlistService, WaitlistPromoter). Mapped so the table also exists
+// where Hibernate builds the schema instead of Flyway (the H2 benchmarks); in Postgres it comes from V7.
+@Entity
+@Data
+@Table(name = "course_waitlist",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "course_id"}),
+        indexes = @Index(name = "course_waitlist_course_id_idx", columnList = "course_id, id"))
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "course_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private Course course;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "student_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private Student student;
+
+    @Column(name = "joined_at", nullable = false)
+    @ColumnDefault("current_timestamp")
+    private LocalDateTime joinedAt;
+}
@@ -1,8 +1,165 @@
 package com.rubayet.school.repository;
 
+import com.rubayet.school.dto.CourseSummary;
+import com.rubayet.school.dto.SeatSnapshot;
+import com.rubayet.school.dto.RosterVersion;
+import com.rubayet.school.dto.TableVersion;
 import com.rubayet.school.model.Course;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface CourseRepository extends JpaRepository<Course, Long> {
-    // We can add custom queries later if needed
-}
\ No newline at end of file
+
+    // The whole catalog in ONE query: teacher name comes from a join, the enrolled count is the seats_taken column
+    @Query("""
+            select new com.rubayet.school.dto.CourseSummary(c.id, c.title, c.description, t.name, c.seatsTaken, c.capacity, c.version)
+            from Course c
+            left join c.teacher t
+            order by c.id asc
+            """)
+    @Transactional(readOnly = true) // may be served by a replica (ReadWriteRoutingDataSource)
+    List<CourseSummary> findCatalog();
+
+    @Query("""
+            select new com.rubayet.school.dto.CourseSummary(c.id, c.title, c.description, t.name, c.seatsTaken, c.capacity, c.version)
+            from Course c
+            left join c.teacher t
+            where c.id = :id
+            """)
+    CourseSummary findSummary(@Param("id") Long id);
+
+    // Same rows as findCatalog, streamed for the export (see StudentRepository.streamSummaries)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StudentRepository.EXPORT_FETCH_SIZE))
+    @Query("""
+            select new com.rubayet.school.dto.CourseSummary(c.id, c.title, c.description, t.name, c.seatsTaken, c.capacity, c.version)
+            from Course c
+            left join c.teacher t
+            order by c.id asc
+            """)
+    Stream<CourseSummary> streamCatalog();
+
+    // --- VERSIONS (ETags of the JSON API) ---
+    // Enroll / unenroll bump the course version too (claimSeat / releaseSeat), so it also covers the roster.
+
+    @Query("select new com.rubayet.school.dto.TableVersion(count(c), coalesce(sum(c.id), 0L), coalesce(sum(c.version), 0L)) from Course c")
+    TableVersion findTableVersion();
+
+    // null if there is no such course
+    @Query("select c.version from Course c where c.id = :id")
+    Long findVersion(@Param("id") Long id);
+
+    // null if there is no such course
+    @Query("""
+            select new com.rubayet.school.dto.RosterVersion(c.version, coalesce(sum(s.version), 0L))
+            from Course c
+            left join c.students s
+            where c.id = :id
+            group by c.id, c.version
+            """)
+    RosterVersion findRosterVersion(@Param("id") Long id);
+
+    // IDs of the courses the given student is enrolled in (reads only the join table)
+    @Query("""
+            select c.id
+            from Student s
+            join s.courses c
+            where s.id = :studentId
+            """)
+    @Transactional(readOnly = true) // replica, or the primary right after the student's own enroll (RecentWriters)
+    Set<Long> findEnrolledCourseIds(@Param("studentId") Long studentId);
+
+    // --- ENROLLMENT WRITES ---
+    // These touch exactly one 'student_courses' row instead of re-saving the student's whole course list.
+
+    // Adds the row; does nothing if it is already there (or if the user has no student profile / the course is gone).
+    // Returns the number of inserted rows (0 or 1).
+    // Locks the student row until the end of the transaction: one student's enrolls run one at a time, on every
+    // instance, so the timetable check after it (findTimetableConflict) sees the student's other new courses.
+    @Modifying
+    @Query(value = """
+            insert into student_courses (student_id, course_id)
+            select s.id, c.id
+            from students s
+            join users u on u.id = s.user_id
+            join courses c on c.id = :courseId
+            where u.username = :username
+            for update of s
+            on conflict do nothing
+            """, nativeQuery = true)
+    int insertEnrollment(@Param("username") String username, @Param("courseId") Long courseId);
+
+    // A course the student is in that meets at the same time as the given course, or null.
+    // Half-open intervals like WeeklySchedule: a slot ending at 10:00 doesn't clash with one starting at 10:00.
+    @Query(value = """
+            select m.course_id
+            from course_meetings target
+            join course_meetings m on m.day_of_week = target.day_of_week
+                                  and m.start_time < target.end_time
+                                  and target.start_time < m.end_time
+            join student_courses sc on sc.course_id = m.course_id
+            join students s on s.id = sc.student_id
+            join users u on u.id = s.user_id
+            where target.course_id = :courseId
+              and m.course_id <> :courseId
+              and u.username = :username
+            limit 1
+            """, nativeQuery = true)
+    Long findTimetableConflict(@Param("username") String username, @Param("courseId") Long courseId);
+
+    // Removes the row if present. Returns the number of deleted rows (0 or 1).
+    @Modifying
+    @Query(value = """
+            delete from student_courses
+            where course_id = :courseId
+              and student_id = (select s.id from students s join users u on u.id = s.user_id where u.username = :username)
+            """, nativeQuery = true)
+    int deleteEnrollment(@Param("username") String username, @Param("courseId") Long courseId);
+
+    // --- SEAT CAPACITY ---
+
+    @Query("select new com.rubayet.school.dto.SeatSnapshot(c.capacity, c.seatsTaken) from Course c where c.id = :courseId")
+    SeatSnapshot findSeatSnapshot(@Param("courseId") Long courseId);
+
+    // Takes a seat only if one is free and nobody is on the course's waitlist (a seat freed while students
+    // wait is theirs: WaitlistPromoter). The check and the increment are one statement,
+    // so two students can never both get the last seat. Returns 1 if a seat was taken, 0 if the course is full.
+    @Modifying
+    @Query(value = """
+            update courses c
+            set seats_taken = c.seats_taken + 1, version = c.version + 1
+            where c.id = :courseId
+              and (c.capacity is null or c.seats_taken < c.capacity)
+              and not exists (select 1 from course_waitlist w where w.course_id = c.id)
+            """, nativeQuery = true)
+    int claimSeat(@Param("courseId") Long courseId);
+
+    // Gives a seat back after an unenroll
+    @Modifying
+    @Query("""
+            update Course c
+            set c.seatsTaken = c.seatsTaken - 1, c.version = c.version + 1
+            where c.id = :courseId
+              and c.seatsTaken > 0
+            """)
+    int releaseSeat(@Param("courseId") Long courseId);
+
+    // Gives back the seats of every course the student is in (StudentService.delete, before the rows go)
+    @Modifying
+    @Query(value = """
+            update courses c
+            set seats_taken = c.seats_taken - 1, version = c.version + 1
+            where c.seats_taken > 0
+              and c.id in (select sc.course_id from student_courses sc where sc.student_id = :studentId)
+            """, nativeQuery = true)
+    int releaseSeatsOf(@Param("studentId") Long studentId);
+}
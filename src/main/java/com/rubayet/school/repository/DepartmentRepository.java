@@ -1,9 +1,61 @@
 package com.rubayet.school.repository;
 
+import com.rubayet.school.dto.DepartmentOption;
+import com.rubayet.school.dto.DepartmentStats;
 import com.rubayet.school.model.Department;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
+// Departments change a few times a year but are read on every sign-up and student form,
+// so the read methods below are cached (see spring.cache in application.yaml) and every write evicts them.
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
+
+    String ALL_CACHE = "departments";
+    String BY_NAME_CACHE = "departmentsByName";
+
     // This custom method allows us to find a department just by typing its name (e.g. "CSE")
-    Department findByName(String name);
-}
\ No newline at end of file
+    @Cacheable(BY_NAME_CACHE)
+    DepartmentOption findByName(String name);
+
+    // All departments for drop-downs / the department list
+    @Cacheable(ALL_CACHE)
+    @Query("select new com.rubayet.school.dto.DepartmentOption(d.id, d.name) from Department d order by d.name asc")
+    List<DepartmentOption> findAllOptions();
+
+    // Overview: every department with its student / teacher / course / enrollment counts, in ONE statement.
+    // Each table is counted once, grouped by department, and then joined on; joining the tables directly
+    // would multiply the rows (students x teachers x courses). Not cached: the counts change all day.
+    @Query(value = """
+            select d.id, d.name,
+                   coalesce(s.students, 0) as students,
+                   coalesce(t.teachers, 0) as teachers,
+                   coalesce(c.courses, 0) as courses,
+                   coalesce(c.enrollments, 0) as enrollments
+            from departments d
+            left join (select department_id, count(*) as students
+                       from students group by department_id) s on s.department_id = d.id
+            left join (select department_id, count(*) as teachers
+                       from teachers group by department_id) t on t.department_id = d.id
+            left join (select te.department_id, count(*) as courses, sum(co.seats_taken) as enrollments
+                       from courses co join teachers te on te.id = co.teacher_id
+                       group by te.department_id) c on c.department_id = d.id
+            order by d.name asc
+            """, nativeQuery = true)
+    @Transactional(readOnly = true) // may be served by a replica (ReadWriteRoutingDataSource)
+    List<DepartmentStats> findAllStats();
+
+    // --- Writes evict both caches ---
+
+    @Override
+    @CacheEvict(cacheNames = {ALL_CACHE, BY_NAME_CACHE}, allEntries = true)
+    <S extends Department> S save(S department);
+
+    @Override
+    @CacheEvict(cacheNames = {ALL_CACHE, BY_NAME_CACHE}, allEntries = true)
+    void deleteById(Long id);
+}
@@ -1,12 +1,117 @@
 package com.rubayet.school.repository;
 
+import com.rubayet.school.dto.EnrollmentRow;
+import com.rubayet.school.dto.StudentSummary;
+import com.rubayet.school.dto.TableVersion;
 import com.rubayet.school.model.Student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
     // This gives you ready-made methods:
     // .save(), .findAll(), .deleteById(), etc.
     Student findByUser(com.rubayet.school.model.User user);
-}
\ No newline at end of file
+
+    // Delete guard for departments: stops at the first matching row, nothing is loaded
+    boolean existsByDepartmentId(Long departmentId);
+
+    // --- JSON API ---
+
+    @Query("select new com.rubayet.school.dto.TableVersion(count(s), coalesce(sum(s.id), 0L), coalesce(sum(s.version), 0L)) from Student s")
+    TableVersion findTableVersion();
+
+    // null if there is no such student
+    @Query("select s.version from Student s where s.id = :id")
+    Long findVersion(@Param("id") Long id);
+
+    @Query("""
+            select new com.rubayet.school.dto.StudentSummary(s.id, s.name, s.email, d.name, u.username)
+            from Student s
+            left join s.department d
+            left join s.user u
+            where s.id = :id
+            """)
+    StudentSummary findSummary(@Param("id") Long id);
+
+    // Roster of one course
+    @Query("""
+            select new com.rubayet.school.dto.StudentSummary(s.id, s.name, s.email, d.name, u.username)
+            from Student s
+            join s.courses c
+            left join s.department d
+            left join s.user u
+            where c.id = :courseId
+            order by s.name asc, s.id asc
+            """)
+    List<StudentSummary> findSummariesByCourse(@Param("courseId") Long courseId);
+
+    // --- EXPORT ---
+    // Streams (must be consumed inside a transaction and closed): rows are fetched EXPORT_FETCH_SIZE at a time,
+    // so the whole table never sits in memory. DTOs, so nothing piles up in the persistence context either.
+
+    String EXPORT_FETCH_SIZE = "500";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("""
+            select new com.rubayet.school.dto.StudentSummary(s.id, s.name, s.email, d.name, u.username)
+            from Student s
+            left join s.department d
+            left join s.user u
+            order by s.id asc
+            """)
+    Stream<StudentSummary> streamSummaries();
+
+    // Ordered like the (student_id, course_id) unique index, so the database can walk it instead of sorting
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("""
+            select new com.rubayet.school.dto.EnrollmentRow(s.id, s.name, u.username, c.id, c.title)
+            from Student s
+            join s.courses c
+            left join s.user u
+            order by s.id asc, c.id asc
+            """)
+    Stream<EnrollmentRow> streamEnrollments();
+
+    // --- KEYSET (SEEK) PAGINATION FOR THE DIRECTORY ---
+    // Instead of OFFSET we continue "after" the last row we showed, so every page costs the same
+    // no matter how deep the user scrolls. Department and user are joined in the same query.
+
+    // Sorted by id: the cursor is just the last id
+    @Query("""
+            select new com.rubayet.school.dto.StudentSummary(s.id, s.name, s.email, d.name, u.username)
+            from Student s
+            left join s.department d
+            left join s.user u
+            where (:departmentId is null or d.id = :departmentId)
+              and s.id > :afterId
+            order by s.id asc
+            """)
+    List<StudentSummary> findSummariesAfterId(@Param("departmentId") Long departmentId,
+                                              @Param("afterId") long afterId,
+                                              Limit limit);
+
+    // Sorted by name: the cursor is (name, id) so students sharing a name are not skipped
+    @Query("""
+            select new com.rubayet.school.dto.StudentSummary(s.id, s.name, s.email, d.name, u.username)
+            from Student s
+            left join s.department d
+            left join s.user u
+            where (:departmentId is null or d.id = :departmentId)
+              and (s.name > :afterName or (s.name = :afterName and s.id > :afterId))
+            order by s.name asc, s.id asc
+            """)
+    List<StudentSummary> findSummariesAfterName(@Param("departmentId") Long departmentId,
+                                                @Param("afterName") String afterName,
+                                                @Param("afterId") long afterId,
+                                                Limit limit);
+}
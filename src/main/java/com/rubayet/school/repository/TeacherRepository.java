@@ -6,4 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 public interface TeacherRepository extends JpaRepository<Teacher, Long> {
     // This gives us standard database methods like save(), findAll(), etc.
     Teacher findByUser(com.rubayet.school.model.User user);
+
+    // Delete guard for departments (see StudentRepository.existsByDepartmentId)
+    boolean existsByDepartmentId(Long departmentId);
 }
\ No newline at end of file
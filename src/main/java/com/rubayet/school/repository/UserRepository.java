@@ -1,8 +1,28 @@
 package com.rubayet.school.repository;
 
+import com.rubayet.school.dto.UserProfile;
 import com.rubayet.school.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByUsername(String username);
-}
\ No newline at end of file
+
+    // Which of these usernames are already taken? (one query for a whole batch of sign-ups)
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    // User id, role + Student/Teacher profile ids in ONE query (instead of findByUsername + findByUser)
+    @Query("""
+            select new com.rubayet.school.dto.UserProfile(u.id, u.username, u.role, s.id, t.id)
+            from User u
+            left join Student s on s.user = u
+            left join Teacher t on t.user = u
+            where u.username = :username
+            """)
+    UserProfile findProfileByUsername(@Param("username") String username);
+}
@@ -0,0 +1,349 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.DepartmentOption;
+import com.rubayet.school.dto.ImportReport;
+import com.rubayet.school.dto.TypeaheadMatch;
+import com.rubayet.school.model.Department;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.Teacher;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.DepartmentRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.repository.TeacherRepository;
+import com.rubayet.school.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Creates many student/teacher accounts from one CSV file.
+//
+// CSV columns (first line is the header):
+//   username,password,role,name,email,department
+// role is STUDENT or TEACHER, department is a department name (optional), name and email are optional.
+//
+// 1. Parse and validate every row (bad rows go to the report, the rest continue)
+// 2. BCrypt-hash all passwords in parallel, on half the cores (a row that can't be hashed is reported, not fatal)
+// 3. Save users + profiles in chunks, one transaction per chunk, with Hibernate JDBC batching
+@Service
+public class BulkImportService {
+
+    static final int CHUNK_SIZE = 500;
+    static final String HEADER = "username,password,role,name,email,department";
+
+    // Chunk size for the "which usernames are taken" lookup (keeps the IN list reasonable)
+    private static final int LOOKUP_SIZE = 1000;
+
+    // BCrypt only uses the first 72 bytes of a password and refuses longer ones
+    static final int MAX_PASSWORD_BYTES = 72;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private TeacherRepository teacherRepository;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private TypeaheadIndex typeaheadIndex;
+
+    // 0 = half the cores, so logins and page requests keep the rest while an import runs
+    @Value("${school.import.hashing-threads:0}")
+    private int hashingThreads;
+
+    // One parsed CSV line
+    static final class Row {
+        final int line;
+        final String username;
+        String password;
+        final String role;
+        final String name;
+        final String email;
+        final String departmentName;
+        Long departmentId;
+
+        Row(int line, String username, String password, String role, String name, String email, String departmentName) {
+            this.line = line;
+            this.username = username;
+            this.password = password;
+            this.role = role;
+            this.name = name;
+            this.email = email;
+            this.departmentName = departmentName;
+        }
+    }
+
+    public ImportReport importCsv(InputStream csv) throws IOException {
+        List<ImportReport.RowError> errors = new ArrayList<>();
+
+        List<Row> rows = readRows(csv, errors);
+        int totalRows = rows.size() + errors.size();
+
+        rows = rejectExistingUsernames(rows, errors);
+        rows = hashPasswords(rows, errors);
+
+        int imported = 0;
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            imported += saveChunk(rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size())), errors);
+        }
+
+        errors.sort(Comparator.comparingInt(ImportReport.RowError::line));
+        return new ImportReport(totalRows, imported, errors);
+    }
+
+    // --- 1. PARSE + VALIDATE ---
+
+    List<Row> readRows(InputStream csv, List<ImportReport.RowError> errors) throws IOException {
+        Map<String, Long> departmentIds = new HashMap<>();
+        for (DepartmentOption department : departmentRepository.findAllOptions()) {
+            if (department.name() == null) {
+                continue;
+            }
+            departmentIds.put(department.name().trim().toLowerCase(), department.id());
+        }
+
+        List<Row> rows = new ArrayList<>();
+        Set<String> seenUsernames = new HashSet<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+
+        String header = reader.readLine();
+        if (header == null || !HEADER.equalsIgnoreCase(header.replace(" ", "").replace("\uFEFF", ""))) {
+            errors.add(new ImportReport.RowError(1, null, "First line must be the header: " + HEADER));
+            return rows;
+        }
+
+        String text;
+        int line = 1;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            List<String> fields = parseLine(text);
+            while (fields.size() < 6) {
+                fields.add("");
+            }
+
+            String username = fields.get(0);
+            String role = normalizeRole(fields.get(2));
+            String departmentName = fields.get(5);
+
+            String problem = null;
+            if (username.isEmpty()) {
+                problem = "Username is required";
+            } else if (fields.get(1).isEmpty()) {
+                problem = "Password is required";
+            } else if (fields.get(1).getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) {
+                problem = "Password must be at most " + MAX_PASSWORD_BYTES + " bytes";
+            } else if (role == null) {
+                problem = "Role must be STUDENT or TEACHER";
+            } else if (!seenUsernames.add(username)) {
+                problem = "Username appears more than once in the file";
+            } else if (!departmentName.isEmpty() && !departmentIds.containsKey(departmentName.toLowerCase())) {
+                problem = "Unknown department: " + departmentName;
+            }
+            if (problem != null) {
+                errors.add(new ImportReport.RowError(line, username, problem));
+                continue;
+            }
+
+            Row row = new Row(line, username, fields.get(1), role, fields.get(3), fields.get(4), departmentName);
+            row.departmentId = departmentName.isEmpty() ? null : departmentIds.get(departmentName.toLowerCase());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // Same rule as sign-up: the role is stored with the "ROLE_" prefix
+    private static String normalizeRole(String role) {
+        String upper = role.toUpperCase();
+        if (!upper.startsWith("ROLE_")) {
+            upper = "ROLE_" + upper;
+        }
+        return upper.equals("ROLE_STUDENT") || upper.equals("ROLE_TEACHER") ? upper : null;
+    }
+
+    // Splits one CSV line. Supports "quoted, fields" and "" as an escaped quote. Fields are trimmed.
+    static List<String> parseLine(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    private List<Row> rejectExistingUsernames(List<Row> rows, List<ImportReport.RowError> errors) {
+        Set<String> taken = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += LOOKUP_SIZE) {
+            List<String> usernames = rows.subList(from, Math.min(from + LOOKUP_SIZE, rows.size())).stream()
+                    .map(row -> row.username)
+                    .toList();
+            taken.addAll(userRepository.findExistingUsernames(usernames));
+        }
+
+        List<Row> accepted = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (taken.contains(row.username)) {
+                errors.add(new ImportReport.RowError(row.line, row.username, "Username already exists"));
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    // --- 2. HASH ---
+
+    // BCrypt is deliberately slow (~100ms per password), so a few thousand rows take minutes on one thread.
+    // Spread them over a few threads (hashing-threads); the plain-text passwords are dropped as soon as they are hashed.
+    // A row whose password can't be hashed is reported and left out; the others are returned.
+    private List<Row> hashPasswords(List<Row> rows, List<ImportReport.RowError> errors) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        int threads = Math.min(hashingThreads > 0 ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2), rows.size());
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            List<Callable<ImportReport.RowError>> tasks = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                tasks.add(() -> {
+                    try {
+                        row.password = passwordEncoder.encode(row.password);
+                        return null;
+                    } catch (RuntimeException e) {
+                        row.password = null;
+                        return new ImportReport.RowError(row.line, row.username, "Could not hash the password: " + rootMessage(e));
+                    }
+                });
+            }
+            List<Future<ImportReport.RowError>> results = pool.invokeAll(tasks);
+            List<Row> hashed = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                ImportReport.RowError error = results.get(i).get();
+                if (error == null) {
+                    hashed.add(rows.get(i));
+                } else {
+                    errors.add(error);
+                }
+            }
+            return hashed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import was interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not hash passwords", e.getCause());
+        }
+    }
+
+    // --- 3. SAVE ---
+
+    private int saveChunk(List<Row> chunk, List<ImportReport.RowError> errors) {
+        try {
+            // The typeahead only learns about rows once their transaction has committed
+            typeaheadIndex.putAll(transactionTemplate.execute(status -> save(chunk)));
+            return chunk.size();
+        } catch (RuntimeException chunkFailure) {
+            // One bad row (e.g. a username registered meanwhile) fails the whole chunk:
+            // redo it row by row so only that row is reported
+            int imported = 0;
+            for (Row row : chunk) {
+                try {
+                    typeaheadIndex.putAll(transactionTemplate.execute(status -> save(List.of(row))));
+                    imported++;
+                } catch (RuntimeException rowFailure) {
+                    errors.add(new ImportReport.RowError(row.line, row.username, "Could not be saved: " + rootMessage(rowFailure)));
+                }
+            }
+            return imported;
+        }
+    }
+
+    // Sequence IDs + hibernate.jdbc.batch_size mean these become a few batched INSERTs at commit,
+    // not one round trip per row. The User is saved through the profile's cascade.
+    // Returns the saved people, for the typeahead index.
+    private List<TypeaheadMatch> save(List<Row> rows) {
+        List<Student> students = new ArrayList<>();
+        List<Teacher> teachers = new ArrayList<>();
+        for (Row row : rows) {
+            User user = new User();
+            user.setUsername(row.username);
+            user.setPassword(row.password);
+            user.setRole(row.role);
+
+            String name = row.name.isEmpty() ? row.username : row.name;
+            Department department = row.departmentId != null ? departmentRepository.getReferenceById(row.departmentId) : null;
+
+            if (row.role.equals("ROLE_STUDENT")) {
+                Student student = new Student();
+                student.setName(name);
+                student.setEmail(row.email.isEmpty() ? "N/A" : row.email);
+                student.setUser(user);
+                student.setDepartment(department);
+                students.add(student);
+            } else {
+                Teacher teacher = new Teacher();
+                teacher.setName(name);
+                teacher.setEmail(row.email.isEmpty() ? null : row.email);
+                teacher.setUser(user);
+                teacher.setDepartment(department);
+                teachers.add(teacher);
+            }
+        }
+        studentRepository.saveAll(students);
+        teacherRepository.saveAll(teachers);
+
+        List<TypeaheadMatch> saved = new ArrayList<>(rows.size());
+        for (Student student : students) {
+            saved.add(new TypeaheadMatch(TypeaheadMatch.Kind.STUDENT, student.getId(), student.getName(), student.getUser().getUsername()));
+        }
+        for (Teacher teacher : teachers) {
+            saved.add(new TypeaheadMatch(TypeaheadMatch.Kind.TEACHER, teacher.getId(), teacher.getName(), teacher.getUser().getUsername()));
+        }
+        return saved;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
@@ -0,0 +1,64 @@
+package com.rubayet.school.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rubayet.school.dto.CourseSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Rendered HTML of the catalog cards (title, instructor, description, seat count: template course_card.html).
+//
+// That part of a card is the same for every user, so it is rendered once per course version and then
+// pasted into courses.html as is; only the enroll / unenroll button is evaluated per request.
+// An entry is only used if its version matches the row that was just read. Editing a course or
+// enrolling / unenrolling bumps the version, so a stale card is never shown, even when the change
+// was made by another instance. saveCourse and EnrollmentService also evict the entry right away.
+@Service
+public class CourseCardCache {
+
+    static final int MAX_ENTRIES = 10_000;
+    static final String TEMPLATE = "course_card";
+
+    private record RenderedCard(Long version, String html) {
+    }
+
+    private final Cache<Long, RenderedCard> cards = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .build();
+
+    @Autowired
+    private ITemplateEngine templateEngine;
+
+    // Course id -> card HTML, for the view (th:utext: the HTML was escaped when it was rendered)
+    public Map<Long, String> render(List<CourseSummary> courses) {
+        Map<Long, String> html = HashMap.newHashMap(courses.size());
+        for (CourseSummary course : courses) {
+            html.put(course.id(), render(course));
+        }
+        return html;
+    }
+
+    public String render(CourseSummary course) {
+        RenderedCard card = cards.getIfPresent(course.id());
+        if (card == null || !Objects.equals(card.version(), course.version())) {
+            Context context = new Context();
+            context.setVariable("course", course);
+            card = new RenderedCard(course.version(), templateEngine.process(TEMPLATE, context));
+            cards.put(course.id(), card);
+        }
+        return card.html();
+    }
+
+    public void evict(Long courseId) {
+        if (courseId != null) {
+            cards.invalidate(courseId);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.config.DatabasePlatform;
+import com.rubayet.school.dto.CourseSearchPage;
+import com.rubayet.school.dto.CourseSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Course search over title, description and teacher name, 20 ranked rows at a time.
+//
+// On PostgreSQL (objects created by migration V3__course_search.sql):
+// 1. Full-text search: the words are matched against courses.search_vector (GIN index, title ranks above
+//    description) and, separately, against teacher names (expression index); the union is ranked, best first.
+// 2. If nothing matches, a trigram search on title / teacher name finds close spellings ("algebr", "calculs").
+// Other databases (local dev, tests) get a plain case-insensitive LIKE.
+@Service
+public class CourseSearchService {
+
+    public static final int PAGE_SIZE = 20;
+
+    // Ranked results get less useful the deeper you go; this also bounds the OFFSET
+    static final int MAX_PAGE = 50;
+    static final int MAX_QUERY_LENGTH = 100;
+
+    private static final String COLUMNS = "c.id, c.title, c.description, t.name as teacher_name, c.seats_taken, c.capacity, c.version";
+
+    // Two matches, each served by its own GIN index: courses by search_vector, and courses whose teacher's name
+    // matches. An OR across the join would have to look at every course/teacher pair instead.
+    static final String FULL_TEXT_SQL = """
+            with words as (select websearch_to_tsquery('english', ?) as query),
+                 names as (select websearch_to_tsquery('simple', ?) as query),
+                 matches as (
+                     select c.id
+                     from courses c, words
+                     where c.search_vector @@ words.query
+                     union
+                     select c.id
+                     from teachers t
+                     join courses c on c.teacher_id = t.id, names
+                     where to_tsvector('simple', coalesce(t.name, '')) @@ names.query
+                 )
+            select %s
+            from matches
+            join courses c on c.id = matches.id
+            left join teachers t on t.id = c.teacher_id
+            cross join words
+            cross join names
+            order by ts_rank(c.search_vector, words.query)
+                         + ts_rank(to_tsvector('simple', coalesce(t.name, '')), names.query) desc, c.id
+            limit ? offset ?
+            """.formatted(COLUMNS);
+
+    // "<%" = word similarity above pg_trgm.word_similarity_threshold (0.6), served by the trigram indexes
+    static final String TRIGRAM_SQL = """
+            select %s
+            from courses c
+            left join teachers t on t.id = c.teacher_id
+            where cast(? as text) <%% c.title
+               or cast(? as text) <%% t.name
+            order by greatest(word_similarity(cast(? as text), c.title), coalesce(word_similarity(cast(? as text), t.name), 0)) desc, c.id
+            limit ? offset ?
+            """.formatted(COLUMNS);
+
+    static final String LIKE_SQL = """
+            select %s
+            from courses c
+            left join teachers t on t.id = c.teacher_id
+            where lower(c.title) like ? escape '\\'
+               or lower(c.description) like ? escape '\\'
+               or lower(t.name) like ? escape '\\'
+            order by c.title, c.id
+            limit ? offset ?
+            """.formatted(COLUMNS);
+
+    // getObject, not getInt + wasNull: wasNull only looks at the last column read
+    private static final RowMapper<CourseSummary> SUMMARY = (rs, rowNum) ->
+            new CourseSummary(rs.getLong("id"), rs.getString("title"), rs.getString("description"),
+                    rs.getString("teacher_name"), rs.getInt("seats_taken"), rs.getObject("capacity", Integer.class),
+                    rs.getLong("version"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabasePlatform databasePlatform;
+
+    // fuzzy = the caller is paging through typo-fallback results (the first page told it so)
+    @Transactional(readOnly = true) // may be served by a replica (ReadWriteRoutingDataSource)
+    public CourseSearchPage search(String query, int page, boolean fuzzy) {
+        String words = query.strip();
+        if (words.length() > MAX_QUERY_LENGTH) {
+            words = words.substring(0, MAX_QUERY_LENGTH);
+        }
+        page = Math.max(0, Math.min(page, MAX_PAGE));
+
+        // Ask for one extra row: if it comes back, there is a next page
+        int limit = PAGE_SIZE + 1;
+        int offset = page * PAGE_SIZE;
+
+        List<CourseSummary> rows;
+        if (!databasePlatform.isPostgres()) {
+            String pattern = "%" + escapeLike(words.toLowerCase()) + "%";
+            rows = jdbcTemplate.query(LIKE_SQL, SUMMARY, pattern, pattern, pattern, limit, offset);
+            fuzzy = false;
+        } else if (fuzzy) {
+            rows = jdbcTemplate.query(TRIGRAM_SQL, SUMMARY, words, words, words, words, limit, offset);
+        } else {
+            rows = jdbcTemplate.query(FULL_TEXT_SQL, SUMMARY, words, words, limit, offset);
+            if (rows.isEmpty() && page == 0) {
+                fuzzy = true;
+                rows = jdbcTemplate.query(TRIGRAM_SQL, SUMMARY, words, words, words, words, limit, offset);
+            }
+        }
+
+        boolean hasNext = rows.size() > PAGE_SIZE;
+        return new CourseSearchPage(words, hasNext ? rows.subList(0, PAGE_SIZE) : rows, page, hasNext, fuzzy);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -14,6 +14,8 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    // Read from the database on every login, not from UserProfileService's cache: a password changed or an
+    // account removed on another instance takes effect at once. One query next to a BCrypt check is cheap.
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username);
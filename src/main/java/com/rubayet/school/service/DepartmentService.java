@@ -0,0 +1,23 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.model.Department;
+import com.rubayet.school.repository.DepartmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class DepartmentService {
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    // A reference to the department (no SELECT) if it exists, otherwise null.
+    // Existence is checked against the cached department list, so linking a student to a department costs no query.
+    public Department findReferenceIfExists(Long id) {
+        if (id == null) {
+            return null;
+        }
+        boolean exists = departmentRepository.findAllOptions().stream().anyMatch(option -> option.id().equals(id));
+        return exists ? departmentRepository.getReferenceById(id) : null;
+    }
+}
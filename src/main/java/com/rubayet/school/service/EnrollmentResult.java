@@ -0,0 +1,12 @@
+package com.rubayet.school.service;
+
+// Outcome of an enroll attempt
+public enum EnrollmentResult {
+    ENROLLED,
+    ALREADY_ENROLLED,
+    FULL,
+    // Meets at the same time as a course the student already takes (TimetableIndex)
+    CONFLICT,
+    // There is no such course (deleted, or a stale link)
+    NOT_FOUND
+}
@@ -0,0 +1,118 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.SeatSnapshot;
+import com.rubayet.school.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class EnrollmentService {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SeatCounters seatCounters;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CourseCardCache courseCardCache;
+
+    @Autowired
+    private RecentWriters recentWriters;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
+    @Autowired
+    private WaitlistPromoter waitlistPromoter;
+
+    // Enroll the student in the course. Safe to call twice: the second call changes nothing.
+    //
+    // 1. The student's in-memory timetable rejects a course that meets at the same time as one they take,
+    //    and otherwise holds its slots for them (no query once their timetable is loaded).
+    // 2. The in-memory seat counter rejects requests for full courses without touching the database.
+    // 3. Otherwise, in one short transaction: insert the 'student_courses' row (locking the student), check the
+    //    timetable again against the database (the in-memory one misses enrollments made on other instances),
+    //    then take a seat with a conditional UPDATE. If there is a clash or no seat was left (or it is kept
+    //    for the waitlist), the insert is rolled back.
+    public EnrollmentResult enroll(String username, Long courseId) {
+        TimetableIndex.Reservation slots = timetableIndex.reserve(username, courseId);
+        if (slots.isConflict()) {
+            return EnrollmentResult.CONFLICT;
+        }
+        SeatCounters.Admission admission = seatCounters.tryAcquire(courseId, () -> freeSeats(courseId));
+        if (admission != SeatCounters.Admission.ADMITTED) {
+            timetableIndex.cancel(slots);
+            return admission == SeatCounters.Admission.NO_SUCH_COURSE ? EnrollmentResult.NOT_FOUND : EnrollmentResult.FULL;
+        }
+
+        EnrollmentResult result;
+        try {
+            result = transactionTemplate.execute(status -> {
+                if (courseRepository.insertEnrollment(username, courseId) == 0) {
+                    return EnrollmentResult.ALREADY_ENROLLED;
+                }
+                if (courseRepository.findTimetableConflict(username, courseId) != null) {
+                    status.setRollbackOnly();
+                    return EnrollmentResult.CONFLICT;
+                }
+                if (courseRepository.claimSeat(courseId) == 0) {
+                    status.setRollbackOnly();
+                    return EnrollmentResult.FULL;
+                }
+                return EnrollmentResult.ENROLLED;
+            });
+        } catch (RuntimeException e) {
+            seatCounters.release(courseId);
+            timetableIndex.cancel(slots);
+            throw e;
+        }
+
+        if (result == EnrollmentResult.FULL) {
+            seatCounters.markFull(courseId);
+            timetableIndex.cancel(slots);
+        } else if (result == EnrollmentResult.ALREADY_ENROLLED) {
+            seatCounters.release(courseId);
+        } else if (result == EnrollmentResult.CONFLICT) {
+            seatCounters.release(courseId);
+            timetableIndex.cancel(slots);
+            timetableIndex.evictStudent(username); // out of date: reload it from the database next time
+        } else {
+            courseCardCache.evict(courseId); // the seat count on the card changed
+            recentWriters.wrote(username); // their next pages read from the primary
+        }
+        return result;
+    }
+
+    // Unenroll the student from the course. Safe to call twice as well.
+    // Returns true only if an enrollment was actually removed (and its seat given back, to the next
+    // student on the waitlist if there is one: WaitlistPromoter).
+    public boolean unenroll(String username, Long courseId) {
+        Boolean removed = transactionTemplate.execute(status -> {
+            if (courseRepository.deleteEnrollment(username, courseId) == 0) {
+                return false;
+            }
+            courseRepository.releaseSeat(courseId);
+            return true;
+        });
+
+        if (Boolean.TRUE.equals(removed)) {
+            seatCounters.release(courseId);
+            courseCardCache.evict(courseId);
+            timetableIndex.release(username, courseId);
+            recentWriters.wrote(username);
+            waitlistPromoter.seatMayBeFree(courseId);
+            return true;
+        }
+        return false;
+    }
+
+    private int freeSeats(Long courseId) {
+        SeatSnapshot snapshot = courseRepository.findSeatSnapshot(courseId);
+        return snapshot != null ? snapshot.freeSeats() : SeatCounters.NO_SUCH_COURSE;
+    }
+}
@@ -0,0 +1,120 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.CourseSummary;
+import com.rubayet.school.dto.EnrollmentRow;
+import com.rubayet.school.dto.StudentSummary;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Writes whole tables (students, courses, enrollments) as CSV or NDJSON straight to an output stream.
+//
+// Rows come from a streamed query inside a read-only transaction (on Postgres that is a server-side cursor,
+// EXPORT_FETCH_SIZE rows per round trip) and are written out one by one, so memory use doesn't depend
+// on the number of rows. Output is flushed every FLUSH_EVERY rows, so the client sees data right away.
+@Service
+public class ExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    static final int FLUSH_EVERY = 1000;
+
+    static final String[] STUDENT_COLUMNS = {"id", "name", "email", "department", "username"};
+    static final String[] COURSE_COLUMNS = {"id", "title", "description", "teacher", "enrolled", "capacity"};
+    static final String[] ENROLLMENT_COLUMNS = {"student_id", "student_name", "username", "course_id", "course_title"};
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportStudents(Format format, OutputStream out) throws IOException {
+        try (Stream<StudentSummary> rows = studentRepository.streamSummaries()) {
+            write(rows, format, STUDENT_COLUMNS,
+                    s -> new Object[]{s.id(), s.name(), s.email(), s.departmentName(), s.username()}, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportCourses(Format format, OutputStream out) throws IOException {
+        try (Stream<CourseSummary> rows = courseRepository.streamCatalog()) {
+            write(rows, format, COURSE_COLUMNS,
+                    c -> new Object[]{c.id(), c.title(), c.description(), c.teacherName(), c.enrolledCount(), c.capacity()}, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportEnrollments(Format format, OutputStream out) throws IOException {
+        try (Stream<EnrollmentRow> rows = studentRepository.streamEnrollments()) {
+            write(rows, format, ENROLLMENT_COLUMNS,
+                    e -> new Object[]{e.studentId(), e.studentName(), e.username(), e.courseId(), e.courseTitle()}, out);
+        }
+    }
+
+    // NDJSON: one JSON object per line (the DTO itself). CSV: a header line, then one line per row.
+    private <T> void write(Stream<T> rows, Format format, String[] columns, Function<T, Object[]> values,
+                           OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writeCsvLine(writer, columns);
+        }
+        int written = 0;
+        for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+            T row = it.next();
+            if (format == Format.CSV) {
+                writeCsvLine(writer, values.apply(row));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            if (++written % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    // Quotes fields that need it ("" escapes a quote). Text starting with = + - @ is prefixed with ',
+    // so a spreadsheet opening the file shows it instead of running it as a formula.
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
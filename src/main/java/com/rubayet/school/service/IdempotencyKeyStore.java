@@ -0,0 +1,51 @@
+package com.rubayet.school.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Remembers recently used idempotency keys so a retried / double-submitted POST is only applied once.
+// Keys expire after TTL. Past MAX_KEYS, Caffeine evicts keys one at a time instead of forgetting them all,
+// and the keys used last (the ones a retry would repeat) stay. Memory stays flat however many requests come in.
+@Component
+public class IdempotencyKeyStore {
+
+    static final Duration TTL = Duration.ofMinutes(10);
+    static final int MAX_KEYS = 100_000;
+
+    private final Cache<String, Boolean> keys;
+
+    public IdempotencyKeyStore() {
+        this(Clock.systemUTC());
+    }
+
+    IdempotencyKeyStore(Clock clock) {
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(MAX_KEYS)
+                .expireAfterWrite(TTL)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .executor(Runnable::run)
+                .build();
+    }
+
+    // Returns true the first time a key is seen (the caller should do the work),
+    // false if it was already used and has not expired yet (the caller should skip it).
+    public boolean firstUse(String key) {
+        // An expired key counts as absent, so it is treated as new
+        return keys.asMap().putIfAbsent(key, Boolean.TRUE) == null;
+    }
+
+    // The work for this key failed: a retry with the same key should do it again
+    public void forget(String key) {
+        keys.invalidate(key);
+    }
+
+    long size() {
+        keys.cleanUp();
+        return keys.estimatedSize();
+    }
+}
@@ -0,0 +1,88 @@
+package com.rubayet.school.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+
+// Users who changed something a moment ago. Their read-only transactions go to the primary instead of a
+// replica for "window" after the write (ReadWriteRoutingDataSource), so a student who just enrolled sees
+// the enrollment on the next page even if the replica hasn't replayed it yet.
+//
+// The "primary until" time is an attribute of the user's HTTP session. Sessions are shared by all instances
+// (school.session.store=jdbc), so the page after the redirect reads from the primary whichever instance serves it.
+// Only writes made in the user's own request count: a waitlist promotion (background thread) shows up once the
+// replicas have replayed it, at most school.datasource.replica.max-lag later.
+//
+// Only kept when replica routing is on (school.datasource.replica.enabled).
+@Component
+public class RecentWriters {
+
+    static final String PRIMARY_UNTIL = RecentWriters.class.getName() + ".PRIMARY_UNTIL";
+
+    private final Clock clock;
+
+    @Value("${school.datasource.replica.enabled:false}")
+    private boolean enabled;
+
+    // Should be longer than school.datasource.replica.max-lag: after that, the replicas in use have the write
+    @Value("${school.datasource.replica.read-your-writes:10s}")
+    private Duration window;
+
+    public RecentWriters() {
+        this.clock = Clock.systemUTC();
+    }
+
+    RecentWriters(Clock clock, Duration window) {
+        this.clock = clock;
+        this.window = window;
+        this.enabled = true;
+    }
+
+    // After a write for "username"; does nothing unless it is their own request
+    public void wrote(String username) {
+        if (!enabled || username == null || !username.equals(currentUsername())) {
+            return;
+        }
+        HttpServletRequest request = currentRequest();
+        if (request != null) {
+            request.getSession().setAttribute(PRIMARY_UNTIL, clock.millis() + window.toMillis());
+        }
+    }
+
+    // Whether the current request's user wrote something less than "window" ago
+    public boolean recentlyWrote() {
+        if (!enabled) {
+            return false;
+        }
+        HttpServletRequest request = currentRequest();
+        HttpSession session = request != null ? request.getSession(false) : null;
+        if (session == null || !(session.getAttribute(PRIMARY_UNTIL) instanceof Long until)) {
+            return false;
+        }
+        if (until < clock.millis()) {
+            session.removeAttribute(PRIMARY_UNTIL);
+            return false;
+        }
+        return true;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    // null outside a request (background threads, a streamed export's body)
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest() : null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.TypeaheadMatch;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.Teacher;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.repository.TeacherRepository;
+import com.rubayet.school.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Sign-up: the login (users) and its Student / Teacher profile are written in ONE transaction,
+// so a failure can't leave a login without a profile. The User is saved through the profile's cascade:
+// 2 INSERTs, sent at commit.
+@Service
+public class RegistrationService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    public void register(User user, Long departmentId) {
+        // Hash before the transaction starts: BCrypt is slow on purpose, and no connection is held meanwhile
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
+
+        // Ensure the role has the "ROLE_" prefix
+        if (!user.getRole().startsWith("ROLE_")) {
+            user.setRole("ROLE_" + user.getRole());
+        }
+
+        TypeaheadMatch saved = transactionTemplate.execute(status -> save(user, departmentId));
+        if (saved != null) {
+            typeaheadIndex.put(saved);
+        }
+    }
+
+    // Returns the new profile for the typeahead index (null for a role without a profile)
+    private TypeaheadMatch save(User user, Long departmentId) {
+        if (user.getRole().equals("ROLE_STUDENT")) {
+            Student student = new Student();
+            student.setName(user.getUsername());
+            student.setEmail("N/A"); // Placeholder email
+            student.setUser(user);
+            student.setDepartment(departmentService.findReferenceIfExists(departmentId));
+            studentRepository.save(student);
+            return new TypeaheadMatch(TypeaheadMatch.Kind.STUDENT, student.getId(), student.getName(), user.getUsername());
+        }
+        if (user.getRole().equals("ROLE_TEACHER")) {
+            Teacher teacher = new Teacher();
+            teacher.setName(user.getUsername());
+            teacher.setUser(user);
+            teacherRepository.save(teacher);
+            return new TypeaheadMatch(TypeaheadMatch.Kind.TEACHER, teacher.getId(), teacher.getName(), user.getUsername());
+        }
+        userRepository.save(user);
+        return null;
+    }
+}
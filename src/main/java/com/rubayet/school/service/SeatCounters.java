@@ -0,0 +1,135 @@
+package com.rubayet.school.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+// In-memory count of free seats per course, used as an admission gate in front of the database.
+//
+// When 500 students hit "Enroll" on a course with 30 free seats, only ~30 of them go on to the
+// UPDATE on the course row; the rest are told "full" straight away without a write.
+// The database stays the source of truth (see CourseRepository.claimSeat), so this can never overbook:
+// at worst it lets a few extra requests through to be rejected by the database.
+// Counters are reloaded from the database every few seconds to pick up changes made by other instances.
+@Component
+public class SeatCounters {
+
+    static final Duration REFRESH_AFTER = Duration.ofSeconds(5);
+
+    // What "loadFreeSeats" returns for a course that doesn't exist
+    public static final int NO_SUCH_COURSE = -1;
+
+    public enum Admission {
+        ADMITTED,
+        FULL,
+        NO_SUCH_COURSE
+    }
+
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public SeatCounters() {
+        this(Clock.systemUTC());
+    }
+
+    SeatCounters(Clock clock) {
+        this.clock = clock;
+    }
+
+    private static final class Counter {
+        final AtomicInteger free;
+        final long loadedAt;
+
+        Counter(int free, long loadedAt) {
+            this.free = new AtomicInteger(free);
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    // One per course. Its counter is replaced on reload; the lock makes sure only one thread loads a course at a
+    // time, without holding up the map (a ConcurrentHashMap.compute would block other courses in the same bin
+    // for the whole query). A lock rather than synchronized, so virtual threads don't pin their carrier meanwhile.
+    private static final class Slot {
+        final ReentrantLock loading = new ReentrantLock();
+        volatile Counter counter;
+    }
+
+    // Reserves one free seat locally. Returns FULL if the course is (locally known to be) full.
+    // "loadFreeSeats" is only called when the counter is missing or too old; it returns NO_SUCH_COURSE
+    // for a course that doesn't exist, which is not remembered.
+    public Admission tryAcquire(Long courseId, IntSupplier loadFreeSeats) {
+        Counter counter = counter(courseId, loadFreeSeats);
+        if (counter == null) {
+            return Admission.NO_SUCH_COURSE;
+        }
+        while (true) {
+            int current = counter.free.get();
+            if (current <= 0) {
+                return Admission.FULL;
+            }
+            if (current == Integer.MAX_VALUE || counter.free.compareAndSet(current, current - 1)) {
+                return Admission.ADMITTED; // MAX_VALUE = no capacity limit, nothing to count
+            }
+        }
+    }
+
+    // Gives a locally reserved seat back (the database write did not take it, or a student unenrolled)
+    public void release(Long courseId) {
+        Counter counter = current(courseId);
+        if (counter != null) {
+            counter.free.getAndUpdate(current -> current == Integer.MAX_VALUE ? current : current + 1);
+        }
+    }
+
+    // The database said there are no seats left: reject everyone locally until the next refresh
+    public void markFull(Long courseId) {
+        Counter counter = current(courseId);
+        if (counter != null) {
+            counter.free.set(0);
+        }
+    }
+
+    // Forget a course (e.g. after its capacity was changed) so the next request reloads it
+    public void evict(Long courseId) {
+        slots.remove(courseId);
+    }
+
+    private Counter current(Long courseId) {
+        Slot slot = slots.get(courseId);
+        return slot != null ? slot.counter : null;
+    }
+
+    // null if the course doesn't exist
+    private Counter counter(Long courseId, IntSupplier loadFreeSeats) {
+        long now = clock.millis();
+        Slot slot = slots.computeIfAbsent(courseId, id -> new Slot());
+        Counter counter = slot.counter;
+        if (counter != null && now - counter.loadedAt < REFRESH_AFTER.toMillis()) {
+            return counter;
+        }
+        // The others wait here and use what the first one loaded
+        slot.loading.lock();
+        try {
+            counter = slot.counter;
+            if (counter != null && now - counter.loadedAt < REFRESH_AFTER.toMillis()) {
+                return counter;
+            }
+            int free = loadFreeSeats.getAsInt();
+            if (free == NO_SUCH_COURSE) {
+                slots.remove(courseId, slot);
+                return null;
+            }
+            counter = new Counter(free, now);
+            slot.counter = counter;
+            return counter;
+        } finally {
+            slot.loading.unlock();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.StudentPage;
+import com.rubayet.school.dto.StudentSort;
+import com.rubayet.school.dto.StudentSummary;
+import com.rubayet.school.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class StudentDirectoryService {
+
+    public static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    // Loads one page of the directory, starting right after the given cursor.
+    // A null cursor means "first page". Read-only, so a replica may serve it.
+    @Transactional(readOnly = true)
+    public StudentPage findPage(Long departmentId, StudentSort sort, Long afterId, String afterName) {
+        // Ask for one extra row: if it comes back, we know there is a next page
+        Limit limit = Limit.of(PAGE_SIZE + 1);
+        long lastId = afterId != null ? afterId : 0L;
+
+        List<StudentSummary> rows;
+        if (sort == StudentSort.NAME) {
+            String lastName = afterName != null ? afterName : "";
+            rows = studentRepository.findSummariesAfterName(departmentId, lastName, lastId, limit);
+        } else {
+            rows = studentRepository.findSummariesAfterId(departmentId, lastId, limit);
+        }
+
+        if (rows.size() > PAGE_SIZE) {
+            List<StudentSummary> page = rows.subList(0, PAGE_SIZE);
+            return new StudentPage(page, page.get(PAGE_SIZE - 1));
+        }
+        return new StudentPage(rows, null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.model.Department;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Writes behind the student forms. Each one is ONE transaction, and the in-memory copies
+// (typeahead index, profile cache) are only updated after it has committed.
+//
+// - the department is linked with a reference (no SELECT); its existence is checked against the cached list
+// - updates change the loaded entity and let Hibernate's dirty checking write it at commit:
+//   no save() / merge, and no UPDATE at all if nothing changed
+@Service
+public class StudentService {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @Autowired
+    private UserProfileService userProfileService;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
+    // Admin "Add Student" form (a student without a login). 1 statement: the INSERT.
+    // Returns false, and saves nothing, if the department doesn't exist.
+    public boolean create(String name, String email, Long departmentId) {
+        Student saved = transactionTemplate.execute(status -> {
+            Department department = departmentService.findReferenceIfExists(departmentId);
+            if (department == null) {
+                return null;
+            }
+            Student student = new Student();
+            student.setName(name);
+            student.setEmail(email);
+            student.setDepartment(department);
+            return studentRepository.save(student);
+        });
+        if (saved == null) {
+            return false;
+        }
+        typeaheadIndex.putStudent(saved);
+        return true;
+    }
+
+    // 2 statements: the SELECT, then the UPDATE at commit. An unknown department leaves the old one.
+    // Returns false if there is no such student.
+    public boolean update(Long id, String name, String email, Long departmentId) {
+        Student updated = transactionTemplate.execute(status -> {
+            Student student = studentRepository.findById(id).orElse(null);
+            if (student == null) {
+                return null;
+            }
+            student.setName(name);
+            student.setEmail(email);
+            Department department = departmentService.findReferenceIfExists(departmentId);
+            if (department != null) {
+                student.setDepartment(department);
+            }
+            return student;
+        });
+        if (updated == null) {
+            return false;
+        }
+        userProfileService.evictStudent(id);
+        typeaheadIndex.putStudent(updated);
+        return true;
+    }
+
+    // Deletes the student, their enrollments and their login (cascade), and gives their seats back
+    // (otherwise seats_taken would stay too high for good).
+    // Returns false if there is no such student.
+    public boolean delete(Long id) {
+        Student deleted = transactionTemplate.execute(status -> {
+            Student student = studentRepository.findById(id).orElse(null);
+            if (student == null) {
+                return null;
+            }
+            courseRepository.releaseSeatsOf(id);
+            studentRepository.delete(student);
+            return student;
+        });
+        if (deleted == null) {
+            return false;
+        }
+        userProfileService.evictStudent(id); // the linked login is gone too
+        typeaheadIndex.removeStudent(id);
+        if (deleted.getUser() != null) {
+            timetableIndex.evictStudent(deleted.getUser().getUsername());
+        }
+        return true;
+    }
+}
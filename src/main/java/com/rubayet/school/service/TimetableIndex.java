@@ -0,0 +1,176 @@
+package com.rubayet.school.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Timetable conflict check for enroll: the meeting slots of each student's courses (WeeklySchedule),
+// kept in memory and changed one course at a time.
+//
+// - reserve() checks the course's slots against the student's schedule and adds them in one atomic step,
+//   before the enrollment transaction, so two concurrent enrolls of one student can't both get through.
+//   EnrollmentService cancels the reservation if the enrollment doesn't happen (full, error).
+// - A student's schedule is read from the database once, together with the course being enrolled in
+//   (one query), and then kept up to date by reserve / release instead of being reloaded.
+// - Course slots are cached per course; saving a course evicts it and the schedules that contain it.
+//
+// Enrollments made by another instance are not seen until the student's entry expires (expireAfterAccess),
+// so this is only the fast path: EnrollmentService checks again in the enroll transaction
+// (CourseRepository.findTimetableConflict) and evicts the student's entry when that finds a clash.
+@Service
+public class TimetableIndex {
+
+    static final int MAX_STUDENTS = 100_000;
+    static final int MAX_COURSES = 10_000;
+    static final Duration STUDENT_TTL = Duration.ofMinutes(30);
+
+    // Slots of one course (same columns as STUDENT_SLOTS, so both use SLOT_ROW)
+    static final String COURSE_SLOTS = """
+            select course_id, day_of_week, start_time, end_time, false as enrolled
+            from course_meetings
+            where course_id = ?
+            """;
+
+    // Slots of every course the student is in, plus those of the course being enrolled in
+    private static final String STUDENT_SLOTS = """
+            with enrolled as (
+                select sc.course_id
+                from student_courses sc
+                join students s on s.id = sc.student_id
+                join users u on u.id = s.user_id
+                where u.username = ?
+            )
+            select m.course_id, m.day_of_week, m.start_time, m.end_time, e.course_id is not null as enrolled
+            from course_meetings m
+            left join enrolled e on e.course_id = m.course_id
+            where e.course_id is not null or m.course_id = ?
+            """;
+
+    private record SlotRow(long courseId, int start, int end, boolean enrolled) {
+    }
+
+    private static final RowMapper<SlotRow> SLOT_ROW = (rs, rowNum) -> {
+        DayOfWeek day = DayOfWeek.valueOf(rs.getString("day_of_week"));
+        return new SlotRow(rs.getLong("course_id"),
+                minuteOfWeek(day, rs.getObject("start_time", LocalTime.class)),
+                minuteOfWeek(day, rs.getObject("end_time", LocalTime.class)),
+                rs.getBoolean("enrolled"));
+    };
+
+    // What reserve() did, for cancel()
+    public record Reservation(String username, Long courseId, boolean added, Long conflictingCourseId) {
+        public boolean isConflict() {
+            return conflictingCourseId != null;
+        }
+    }
+
+    private final Cache<String, WeeklySchedule> schedules = Caffeine.newBuilder()
+            .maximumSize(MAX_STUDENTS)
+            .expireAfterAccess(STUDENT_TTL)
+            .build();
+
+    private final Cache<Long, int[][]> courseSlots = Caffeine.newBuilder()
+            .maximumSize(MAX_COURSES)
+            .build();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Adds the course's slots to the student's schedule, unless one of them overlaps a course the student
+    // already takes: then the schedule is left as it is and the reservation names that course.
+    public Reservation reserve(String username, Long courseId) {
+        WeeklySchedule loaded = schedules.get(username, key -> loadSchedule(key, courseId));
+        int[][] slots = courseSlots.get(courseId, this::loadCourse);
+        if (slots.length == 0) {
+            return new Reservation(username, courseId, false, null); // no fixed meeting times
+        }
+
+        Reservation[] reservation = new Reservation[1];
+        schedules.asMap().compute(username, (key, current) -> {
+            WeeklySchedule schedule = current != null ? current : loaded;
+            if (schedule.contains(courseId)) {
+                reservation[0] = new Reservation(username, courseId, false, null); // already enrolled
+                return schedule;
+            }
+            Long conflict = schedule.conflictWith(slots);
+            if (conflict != null) {
+                reservation[0] = new Reservation(username, courseId, false, conflict);
+                return schedule;
+            }
+            reservation[0] = new Reservation(username, courseId, true, null);
+            return schedule.with(courseId, slots);
+        });
+        return reservation[0];
+    }
+
+    // The enrollment didn't happen: take the slots back out
+    public void cancel(Reservation reservation) {
+        if (reservation.added()) {
+            release(reservation.username(), reservation.courseId());
+        }
+    }
+
+    // After an unenroll
+    public void release(String username, Long courseId) {
+        schedules.asMap().computeIfPresent(username, (key, schedule) -> schedule.without(courseId));
+    }
+
+    // The course's meeting times changed
+    public void evictCourse(Long courseId) {
+        if (courseId == null) {
+            return;
+        }
+        courseSlots.invalidate(courseId);
+        schedules.asMap().values().removeIf(schedule -> schedule.contains(courseId));
+    }
+
+    // The student is gone (their username may be taken again)
+    public void evictStudent(String username) {
+        schedules.invalidate(username);
+    }
+
+    // One query for both the student's schedule and the course's slots
+    private WeeklySchedule loadSchedule(String username, Long courseId) {
+        List<SlotRow> rows = jdbcTemplate.query(STUDENT_SLOTS, SLOT_ROW, username, courseId);
+
+        Map<Long, List<int[]>> enrolled = new HashMap<>();
+        List<int[]> target = new ArrayList<>();
+        for (SlotRow row : rows) {
+            if (row.enrolled()) {
+                enrolled.computeIfAbsent(row.courseId(), id -> new ArrayList<>()).add(new int[]{row.start(), row.end()});
+            }
+            if (row.courseId() == courseId) {
+                target.add(new int[]{row.start(), row.end()});
+            }
+        }
+        courseSlots.put(courseId, target.toArray(int[][]::new));
+
+        WeeklySchedule schedule = WeeklySchedule.EMPTY;
+        for (Map.Entry<Long, List<int[]>> course : enrolled.entrySet()) {
+            schedule = schedule.with(course.getKey(), course.getValue().toArray(int[][]::new));
+        }
+        return schedule;
+    }
+
+    private int[][] loadCourse(Long courseId) {
+        return jdbcTemplate.query(COURSE_SLOTS, SLOT_ROW, courseId).stream()
+                .map(row -> new int[]{row.start(), row.end()})
+                .toArray(int[][]::new);
+    }
+
+    // Minutes since Monday 00:00
+    static int minuteOfWeek(DayOfWeek day, LocalTime time) {
+        return (day.getValue() - 1) * WeeklySchedule.MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+}
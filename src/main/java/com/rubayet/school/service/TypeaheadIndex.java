@@ -0,0 +1,344 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.TypeaheadMatch;
+import com.rubayet.school.dto.TypeaheadMatch.Kind;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.Teacher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// In-memory prefix index over student and teacher names and usernames, for the typeahead on the students page.
+//
+// The index is two parallel sorted arrays (keys + who they belong to), so a lookup is a binary search
+// followed by a short forward scan: no database round trip, no allocation beyond the result list.
+// Every person is findable by the start of their full name, of any later word of it, or of their username:
+// "rub", "nab" and "rubayet n" all find "Rubayet Nabil".
+//
+// Readers use the current snapshot without locking. Writers (sign-up, student add/edit/delete, bulk import)
+// build a new snapshot by merging their changes into the old one and swap it in, one writer at a time.
+//
+// It is filled from one streaming scan at startup and then kept up to date by the code that changes
+// students and teachers. That code only sees writes made through this instance, so the scan is repeated
+// every "refresh-interval", and what changed since (on other instances too) is merged in.
+@Service
+@DependsOn("entityManagerFactory") // the tables must exist first
+public class TypeaheadIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TypeaheadIndex.class);
+
+    public static final int MAX_RESULTS = 10;
+
+    // Rows per round trip while scanning (Postgres only streams inside a transaction)
+    static final int FETCH_SIZE = 1000;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private static final String STUDENTS_SQL =
+            "select s.id, s.name, u.username from students s left join users u on u.id = s.user_id";
+    private static final String TEACHERS_SQL =
+            "select t.id, t.name, u.username from teachers t left join users u on u.id = t.user_id";
+
+    // keys[i] is a normalized name / word / username of people[i]; keys is sorted
+    private record Snapshot(String[] keys, TypeaheadMatch[] people) {
+        static final Snapshot EMPTY = new Snapshot(new String[0], new TypeaheadMatch[0]);
+    }
+
+    private record Id(Kind kind, Long id) {
+    }
+
+    private record Entry(String key, TypeaheadMatch person) {
+    }
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // Who is in the index right now, so an update / delete knows which entries to drop. Guarded by "this".
+    private final Map<Id, TypeaheadMatch> current = new HashMap<>();
+
+    // People written through this instance while a refresh scan runs (null when none is running): the scan may
+    // have read them before that write, so the refresh leaves them alone. Guarded by "this".
+    private Set<Id> changedDuringScan;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // 0 = never: only this instance's own writes and the startup scan
+    @Value("${school.typeahead.refresh-interval:5m}")
+    private Duration refreshInterval;
+
+    private ScheduledExecutorService scheduler;
+
+    // Not an ApplicationReadyEvent listener: with the fast-startup profile the bean is created in the background,
+    // and a listener would make the ready event create it on the main thread
+    @PostConstruct
+    public void build() {
+        long start = System.nanoTime();
+        List<TypeaheadMatch> everyone = scan();
+        putAll(everyone);
+        log.info("Typeahead index: {} people, {} keys in {} ms",
+                everyone.size(), snapshot.keys().length, (System.nanoTime() - start) / 1_000_000);
+
+        if (refreshInterval != null && refreshInterval.isPositive()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("typeahead-refresh").daemon().factory());
+            scheduler.scheduleWithFixedDelay(this::refresh, refreshInterval.toMillis(), refreshInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // Rescans both tables and merges the difference: people added, renamed or deleted elsewhere.
+    // Only the people that changed go into the merge, so a refresh with nothing new swaps nothing.
+    public void refresh() {
+        synchronized (this) {
+            changedDuringScan = new HashSet<>();
+        }
+        List<TypeaheadMatch> everyone;
+        try {
+            everyone = scan();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changedDuringScan = null;
+            }
+            log.warn("Typeahead refresh failed, trying again in {}: {}", refreshInterval, e.getMessage());
+            return;
+        }
+        replaceAll(everyone);
+    }
+
+    private synchronized void replaceAll(List<TypeaheadMatch> everyone) {
+        Set<Id> skip = changedDuringScan;
+        changedDuringScan = null;
+
+        Set<Id> scanned = new HashSet<>();
+        List<TypeaheadMatch> changed = new ArrayList<>();
+        for (TypeaheadMatch person : everyone) {
+            Id id = new Id(person.kind(), person.id());
+            scanned.add(id);
+            if (!skip.contains(id) && !person.equals(current.get(id))) {
+                changed.add(person);
+            }
+        }
+        List<Id> gone = new ArrayList<>();
+        for (Id id : current.keySet()) {
+            if (!scanned.contains(id) && !skip.contains(id)) {
+                gone.add(id);
+            }
+        }
+        if (!changed.isEmpty() || !gone.isEmpty()) {
+            update(changed, gone);
+            log.debug("Typeahead refresh: {} changed, {} gone", changed.size(), gone.size());
+        }
+    }
+
+    private List<TypeaheadMatch> scan() {
+        List<TypeaheadMatch> everyone = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement(STUDENTS_SQL);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, collect(Kind.STUDENT, everyone));
+            jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement(TEACHERS_SQL);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, collect(Kind.TEACHER, everyone));
+        });
+        return everyone;
+    }
+
+    private static RowCallbackHandler collect(Kind kind, List<TypeaheadMatch> into) {
+        return rs -> into.add(new TypeaheadMatch(kind, rs.getLong("id"), rs.getString("name"), rs.getString("username")));
+    }
+
+    // --- READ ---
+
+    // Up to "limit" people whose name, a word of their name, or username starts with the query.
+    // Ordered by the matching key, so the results come out alphabetically.
+    public List<TypeaheadMatch> lookup(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Snapshot index = snapshot;
+        String[] keys = index.keys();
+
+        // The same person can match on several keys (name and username), so keep the first hit only
+        Set<TypeaheadMatch> results = new LinkedHashSet<>();
+        for (int i = firstAtOrAfter(keys, prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+            results.add(index.people()[i]);
+            if (results.size() == limit) {
+                break;
+            }
+        }
+        return List.copyOf(results);
+    }
+
+    int size() {
+        return snapshot.keys().length;
+    }
+
+    // Binary search for the first key >= prefix
+    private static int firstAtOrAfter(String[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // --- WRITE ---
+
+    public void putStudent(Student student) {
+        put(new TypeaheadMatch(Kind.STUDENT, student.getId(), student.getName(),
+                student.getUser() != null ? student.getUser().getUsername() : null));
+    }
+
+    public void putTeacher(Teacher teacher) {
+        put(new TypeaheadMatch(Kind.TEACHER, teacher.getId(), teacher.getName(),
+                teacher.getUser() != null ? teacher.getUser().getUsername() : null));
+    }
+
+    public void removeStudent(Long id) {
+        update(List.of(), List.of(new Id(Kind.STUDENT, id)));
+    }
+
+    public void put(TypeaheadMatch person) {
+        putAll(List.of(person));
+    }
+
+    // Adds or replaces many people with one snapshot swap (startup scan, bulk import)
+    public void putAll(Collection<TypeaheadMatch> people) {
+        update(people, List.of());
+    }
+
+    private synchronized void update(Collection<TypeaheadMatch> added, Collection<Id> removedIds) {
+        if (changedDuringScan != null) {
+            changedDuringScan.addAll(removedIds);
+            added.forEach(person -> changedDuringScan.add(new Id(person.kind(), person.id())));
+        }
+        Set<TypeaheadMatch> dropped = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Id id : removedIds) {
+            TypeaheadMatch old = current.remove(id);
+            if (old != null) {
+                dropped.add(old);
+            }
+        }
+
+        List<Entry> fresh = new ArrayList<>();
+        for (TypeaheadMatch person : added) {
+            TypeaheadMatch old = current.put(new Id(person.kind(), person.id()), person);
+            if (old != null) {
+                dropped.add(old);
+            }
+            for (String key : keysOf(person)) {
+                fresh.add(new Entry(key, person));
+            }
+        }
+        fresh.sort(Comparator.comparing(Entry::key));
+
+        // Merge the (sorted) old snapshot minus the dropped people with the (sorted) new entries
+        Snapshot old = snapshot;
+        int size = old.keys().length - countKeys(old, dropped) + fresh.size();
+        String[] keys = new String[size];
+        TypeaheadMatch[] people = new TypeaheadMatch[size];
+        int i = 0;
+        int j = 0;
+        int out = 0;
+        while (i < old.keys().length || j < fresh.size()) {
+            if (i < old.keys().length && dropped.contains(old.people()[i])) {
+                i++;
+            } else if (j == fresh.size() || (i < old.keys().length && old.keys()[i].compareTo(fresh.get(j).key()) <= 0)) {
+                keys[out] = old.keys()[i];
+                people[out++] = old.people()[i++];
+            } else {
+                keys[out] = fresh.get(j).key();
+                people[out++] = fresh.get(j++).person();
+            }
+        }
+        snapshot = new Snapshot(keys, people);
+    }
+
+    private static int countKeys(Snapshot snapshot, Set<TypeaheadMatch> people) {
+        if (people.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        for (TypeaheadMatch person : snapshot.people()) {
+            if (people.contains(person)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // "Rubayet Nabil" / "rnabil" -> ["rubayet nabil", "nabil", "rnabil"]
+    static Set<String> keysOf(TypeaheadMatch person) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = normalize(person.name());
+        if (!name.isEmpty()) {
+            keys.add(name);
+            for (int space = name.indexOf(' '); space >= 0; space = name.indexOf(' ', space + 1)) {
+                keys.add(name.substring(space + 1));
+            }
+        }
+        String username = normalize(person.username());
+        if (!username.isEmpty()) {
+            keys.add(username);
+        }
+        return keys;
+    }
+
+    // Lower case, no accents, single spaces: "  José   ÁLVAREZ " -> "jose alvarez"
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String plain = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+}
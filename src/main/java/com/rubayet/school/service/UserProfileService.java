@@ -0,0 +1,59 @@
+package com.rubayet.school.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rubayet.school.dto.UserProfile;
+import com.rubayet.school.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Objects;
+
+// Resolves username -> (user id, role, student id, teacher id) and keeps the answer in memory,
+// so most authenticated requests don't need any query just to know who is calling.
+//
+// The cache is bounded and entries expire, so a stale entry can live at most TTL.
+// StudentController evicts entries when a student profile is edited or deleted. Other instances only
+// find out when their entry expires, which is why the cache doesn't hold the password hash: logins
+// always check against the database (CustomUserDetailsService).
+@Service
+public class UserProfileService {
+
+    static final int MAX_ENTRIES = 10_000;
+    static final Duration TTL = Duration.ofMinutes(5);
+
+    private final Cache<String, UserProfile> profiles = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(TTL)
+            .build();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Returns null if there is no such user (unknown users are not cached)
+    public UserProfile findByUsername(String username) {
+        UserProfile profile = profiles.getIfPresent(username);
+        if (profile == null) {
+            profile = userRepository.findProfileByUsername(username);
+            if (profile != null) {
+                profiles.put(username, profile);
+            }
+        }
+        return profile;
+    }
+
+    public UserProfile currentProfile(Principal principal) {
+        return principal != null ? findByUsername(principal.getName()) : null;
+    }
+
+    public void evict(String username) {
+        profiles.invalidate(username);
+    }
+
+    // Drops whatever entry points at this student (used when we only know the student id)
+    public void evictStudent(Long studentId) {
+        profiles.asMap().values().removeIf(profile -> Objects.equals(profile.studentId(), studentId));
+    }
+}
@@ -0,0 +1,264 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.SeatSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Gives freed seats to the students on the course's waitlist, oldest first, on a thread of its own.
+//
+// - unenroll (and joining a waitlist) only note the course id in memory (seatMayBeFree); every "interval"
+//   the thread promotes the waiters of all noted courses, one transaction per course for up to
+//   "batch-size" students: one insert for all their enrollments, one delete for their queue rows,
+//   one update for the seats.
+// - The transaction starts by locking the course row, so promotions of one course run one at a time on
+//   every instance, and enroll can't take the seat meanwhile (claimSeat skips courses with waiters anyway).
+//   Queue rows are deleted in the same transaction that inserts the enrollments: a crash before the commit
+//   leaves the students waiting, a crash after it leaves them enrolled, nobody is promoted twice.
+// - Every "sweep-interval", and once at startup, all courses with waiters and a free seat are noted again:
+//   seats freed by another instance, by a deleted student or by a bigger capacity, or before a restart.
+//
+// A waiter whose timetable now clashes with the course (TimetableIndex) is dropped from the queue instead.
+@Component
+public class WaitlistPromoter {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistPromoter.class);
+
+    // Locked until the end of the transaction
+    static final String LOCK_COURSE = """
+            select capacity, seats_taken
+            from courses
+            where id = ?
+            for update
+            """;
+
+    static final String NEXT_IN_LINE = """
+            select w.id, w.student_id, u.username
+            from course_waitlist w
+            join students s on s.id = w.student_id
+            join users u on u.id = s.user_id
+            where w.course_id = ?
+            order by w.id
+            limit ?
+            """;
+
+    // Returns the students that got in. Skipped: one who enrolled some other way while waiting, and one whose
+    // timetable clashes with the course in the database (an enrollment the in-memory TimetableIndex hasn't seen,
+    // same check as CourseRepository.findTimetableConflict).
+    static final String ENROLL = """
+            insert into student_courses (student_id, course_id)
+            select w.student_id, c.id
+            from unnest(?::bigint[]) as w(student_id)
+            join courses c on c.id = ?
+            where not exists (select 1
+                              from course_meetings target
+                              join course_meetings m on m.day_of_week = target.day_of_week
+                                                    and m.start_time < target.end_time
+                                                    and target.start_time < m.end_time
+                              join student_courses sc on sc.course_id = m.course_id
+                              where target.course_id = c.id
+                                and m.course_id <> c.id
+                                and sc.student_id = w.student_id)
+            on conflict do nothing
+            returning student_id
+            """;
+
+    static final String DEQUEUE = "delete from course_waitlist where course_id = ? and id <= ?";
+
+    static final String TAKE_SEATS = "update courses set seats_taken = seats_taken + ?, version = version + 1 where id = ?";
+
+    static final String WAITING_FOR_FREE_SEATS = """
+            select distinct w.course_id
+            from course_waitlist w
+            join courses c on c.id = w.course_id
+            where c.capacity is null or c.seats_taken < c.capacity
+            """;
+
+    record Waiter(long id, long studentId, String username) {
+    }
+
+    private static final RowMapper<Waiter> WAITER_ROW = (rs, rowNum) ->
+            new Waiter(rs.getLong("id"), rs.getLong("student_id"), rs.getString("username"));
+
+    // What one transaction did; "more" = it took a full batch, so the course is looked at again.
+    // "stale": waiters the in-memory timetable let through but the database didn't enroll.
+    record Batch(List<String> promoted, List<String> stale, boolean more) {
+        static final Batch NONE = new Batch(List.of(), List.of(), false);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
+    @Autowired
+    private SeatCounters seatCounters;
+
+    @Autowired
+    private CourseCardCache courseCardCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${school.waitlist.interval:500ms}")
+    private Duration interval;
+
+    @Value("${school.waitlist.sweep-interval:1m}")
+    private Duration sweepInterval;
+
+    @Value("${school.waitlist.batch-size:50}")
+    private int batchSize;
+
+    // Courses that may have a free seat for their waiters
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private Counter promotions;
+    private ScheduledExecutorService scheduler;
+
+    public WaitlistPromoter() {
+    }
+
+    WaitlistPromoter(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        promotions = Counter.builder("school.waitlist.promoted")
+                .description("Students enrolled from a waitlist")
+                .register(meterRegistry);
+        meterRegistry.gauge("school.waitlist.pending", pending, Set::size);
+    }
+
+    // After Flyway and the seat reconciliation; the first sweep picks up what was waiting before a restart
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("waitlist-promoter").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::sweep, 0, sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::promotePending, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // A seat of the course may have been freed: promote its next waiters on the next run
+    public void seatMayBeFree(Long courseId) {
+        if (courseId != null) {
+            pending.add(courseId);
+        }
+    }
+
+    void sweep() {
+        try {
+            pending.addAll(jdbcTemplate.queryForList(WAITING_FOR_FREE_SEATS, Long.class));
+        } catch (RuntimeException e) {
+            log.warn("Could not look for waitlists with free seats: {}", e.getMessage());
+        }
+    }
+
+    void promotePending() {
+        for (Long courseId : List.copyOf(pending)) {
+            pending.remove(courseId);
+            try {
+                if (promote(courseId).more()) {
+                    pending.add(courseId);
+                }
+            } catch (RuntimeException e) {
+                // Nothing was promoted; the next sweep tries again
+                log.warn("Could not promote the waitlist of course {}: {}", courseId, e.getMessage());
+            }
+        }
+    }
+
+    // Promotes up to batchSize waiters of one course, as many as there are free seats
+    Batch promote(Long courseId) {
+        List<TimetableIndex.Reservation> reservations = new ArrayList<>();
+        Batch batch;
+        try {
+            batch = transactionTemplate.execute(status -> {
+                List<SeatSnapshot> seats = jdbcTemplate.query(LOCK_COURSE,
+                        (rs, rowNum) -> new SeatSnapshot(rs.getObject("capacity", Integer.class), rs.getInt("seats_taken")),
+                        courseId);
+                int limit = seats.isEmpty() ? 0 : Math.min(seats.getFirst().freeSeats(), batchSize);
+                if (limit == 0) {
+                    return Batch.NONE;
+                }
+                List<Waiter> waiters = jdbcTemplate.query(NEXT_IN_LINE, WAITER_ROW, courseId, limit);
+                if (waiters.isEmpty()) {
+                    return Batch.NONE;
+                }
+
+                List<Long> admitted = new ArrayList<>();
+                for (Waiter waiter : waiters) {
+                    TimetableIndex.Reservation reservation = timetableIndex.reserve(waiter.username(), courseId);
+                    if (!reservation.isConflict()) {
+                        reservations.add(reservation);
+                        admitted.add(waiter.studentId());
+                    }
+                }
+                Set<Long> enrolled = new HashSet<>();
+                if (!admitted.isEmpty()) {
+                    enrolled.addAll(jdbcTemplate.query(ENROLL, (rs, rowNum) -> rs.getLong(1),
+                            admitted.toArray(Long[]::new), courseId));
+                }
+                jdbcTemplate.update(DEQUEUE, courseId, waiters.getLast().id());
+                if (!enrolled.isEmpty()) {
+                    jdbcTemplate.update(TAKE_SEATS, enrolled.size(), courseId);
+                }
+
+                List<String> promoted = new ArrayList<>();
+                List<String> stale = new ArrayList<>();
+                for (Waiter waiter : waiters) {
+                    if (enrolled.contains(waiter.studentId())) {
+                        promoted.add(waiter.username());
+                    } else if (admitted.contains(waiter.studentId())) {
+                        stale.add(waiter.username());
+                    }
+                }
+                return new Batch(promoted, stale, waiters.size() == limit);
+            });
+        } catch (RuntimeException e) {
+            reservations.forEach(timetableIndex::cancel);
+            throw e;
+        }
+
+        // Admitted by the in-memory timetable but not enrolled: its picture of them is out of date
+        batch.stale().forEach(timetableIndex::evictStudent);
+        if (!batch.promoted().isEmpty()) {
+            seatCounters.evict(courseId); // reload instead of guessing what is left
+            courseCardCache.evict(courseId);
+            promotions.increment(batch.promoted().size());
+        }
+        return batch;
+    }
+}
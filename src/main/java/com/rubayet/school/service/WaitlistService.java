@@ -0,0 +1,114 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.EnrollmentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Waitlists of full courses (table course_waitlist): a student who gets "full" joins the queue once
+// instead of retrying enroll, and WaitlistPromoter gives them the next free seat, first come first served.
+// While anyone waits, enroll can't take a freed seat ahead of them (CourseRepository.claimSeat).
+@Service
+public class WaitlistService {
+
+    // Does nothing if the student is already waiting, already enrolled, or has no student profile
+    private static final String JOIN = """
+            insert into course_waitlist (course_id, student_id)
+            select c.id, s.id
+            from students s
+            join users u on u.id = s.user_id
+            join courses c on c.id = ?
+            where u.username = ?
+              and not exists (select 1 from student_courses sc where sc.student_id = s.id and sc.course_id = c.id)
+            on conflict do nothing
+            """;
+
+    // 0 when the student is not on the course's waitlist
+    private static final String POSITION = """
+            select count(*)
+            from course_waitlist w
+            where w.course_id = ?
+              and w.id <= (select mine.id
+                           from course_waitlist mine
+                           join students s on s.id = mine.student_id
+                           join users u on u.id = s.user_id
+                           where mine.course_id = ? and u.username = ?)
+            """;
+
+    private static final String LEAVE = """
+            delete from course_waitlist
+            where course_id = ?
+              and student_id = (select s.id from students s join users u on u.id = s.user_id where u.username = ?)
+            """;
+
+    // Enrolled courses (position 0) and waitlisted ones (position >= 1) of one student
+    private static final String STATUS = """
+            select sc.course_id, 0 as place
+            from student_courses sc
+            where sc.student_id = ?
+            union all
+            select w.course_id, (select count(*) from course_waitlist ahead
+                                 where ahead.course_id = w.course_id and ahead.id <= w.id)
+            from course_waitlist w
+            where w.student_id = ?
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private WaitlistPromoter waitlistPromoter;
+
+    @Autowired
+    private RecentWriters recentWriters;
+
+    // Puts the student at the end of the course's waitlist (or leaves them where they are) and
+    // returns their position, 1 = next in line. 0: not on the list (already enrolled, no student profile).
+    public int join(String username, Long courseId) {
+        Integer position = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(JOIN, courseId, username);
+            return jdbcTemplate.queryForObject(POSITION, Integer.class, courseId, courseId, username);
+        });
+        if (position != null && position > 0) {
+            recentWriters.wrote(username);
+            waitlistPromoter.seatMayBeFree(courseId); // joined a course that has a seat after all
+            return position;
+        }
+        return 0;
+    }
+
+    // Returns true if the student was on the waitlist
+    public boolean leave(String username, Long courseId) {
+        boolean removed = jdbcTemplate.update(LEAVE, courseId, username) > 0;
+        if (removed) {
+            recentWriters.wrote(username);
+        }
+        return removed;
+    }
+
+    @Transactional(readOnly = true) // replica, or the primary right after the student's own change (RecentWriters)
+    public EnrollmentStatus statusOf(Long studentId) {
+        Set<Long> enrolled = new HashSet<>();
+        Map<Long, Integer> waitlisted = new HashMap<>();
+        jdbcTemplate.query(STATUS, rs -> {
+            long courseId = rs.getLong("course_id");
+            int position = rs.getInt("place");
+            if (position == 0) {
+                enrolled.add(courseId);
+            } else {
+                waitlisted.put(courseId, position);
+            }
+        }, studentId, studentId);
+        return new EnrollmentStatus(enrolled, waitlisted);
+    }
+}
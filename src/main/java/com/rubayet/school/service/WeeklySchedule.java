@@ -0,0 +1,133 @@
+package com.rubayet.school.service;
+
+import java.util.Arrays;
+
+// One student's week as half-open intervals [start, end) of minutes since Monday 00:00, each tagged with
+// its course. Immutable: TimetableIndex swaps in a new one on every change, so readers never need a lock.
+//
+// The intervals are sorted by start, and maxEnd[i] is the latest end among intervals 0..i. A slot [s, e)
+// conflicts with something iff the last interval starting before e has maxEnd > s: one binary search, O(log n).
+// with / without copy the arrays (O(n)), which is nothing next to the database round trip of an enroll.
+final class WeeklySchedule {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    static final WeeklySchedule EMPTY = new WeeklySchedule(new int[0], new int[0], new long[0]);
+
+    private final int[] starts;
+    private final int[] ends;
+    private final long[] courseIds;
+    private final int[] maxEnd;
+
+    private WeeklySchedule(int[] starts, int[] ends, long[] courseIds) {
+        this.starts = starts;
+        this.ends = ends;
+        this.courseIds = courseIds;
+        this.maxEnd = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            maxEnd[i] = i == 0 ? ends[i] : Math.max(maxEnd[i - 1], ends[i]);
+        }
+    }
+
+    // Slots are {start, end} pairs in weekly minutes
+    static WeeklySchedule of(long courseId, int[][] slots) {
+        return EMPTY.with(courseId, slots);
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    boolean contains(long courseId) {
+        for (long id : courseIds) {
+            if (id == courseId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The course of an interval that overlaps one of the slots, or null if none does
+    Long conflictWith(int[][] slots) {
+        for (int[] slot : slots) {
+            int last = lastStartingBefore(slot[1]);
+            if (last >= 0 && maxEnd[last] > slot[0]) {
+                // Something in 0..last overlaps; walk back to find which (only runs when there is a conflict)
+                for (int i = last; i >= 0; i--) {
+                    if (ends[i] > slot[0]) {
+                        return courseIds[i];
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    WeeklySchedule with(long courseId, int[][] slots) {
+        if (slots.length == 0) {
+            return this;
+        }
+        int size = starts.length + slots.length;
+        int[] newStarts = Arrays.copyOf(starts, size);
+        int[] newEnds = Arrays.copyOf(ends, size);
+        long[] newCourseIds = Arrays.copyOf(courseIds, size);
+        int n = starts.length;
+        for (int[] slot : slots) {
+            // Insertion into the sorted arrays
+            int at = n;
+            while (at > 0 && newStarts[at - 1] > slot[0]) {
+                newStarts[at] = newStarts[at - 1];
+                newEnds[at] = newEnds[at - 1];
+                newCourseIds[at] = newCourseIds[at - 1];
+                at--;
+            }
+            newStarts[at] = slot[0];
+            newEnds[at] = slot[1];
+            newCourseIds[at] = courseId;
+            n++;
+        }
+        return new WeeklySchedule(newStarts, newEnds, newCourseIds);
+    }
+
+    WeeklySchedule without(long courseId) {
+        int kept = 0;
+        for (long id : courseIds) {
+            if (id != courseId) {
+                kept++;
+            }
+        }
+        if (kept == courseIds.length) {
+            return this;
+        }
+        int[] newStarts = new int[kept];
+        int[] newEnds = new int[kept];
+        long[] newCourseIds = new long[kept];
+        int j = 0;
+        for (int i = 0; i < courseIds.length; i++) {
+            if (courseIds[i] != courseId) {
+                newStarts[j] = starts[i];
+                newEnds[j] = ends[i];
+                newCourseIds[j] = courseIds[i];
+                j++;
+            }
+        }
+        return new WeeklySchedule(newStarts, newEnds, newCourseIds);
+    }
+
+    // Index of the last interval with start < minute, or -1
+    private int lastStartingBefore(int minute) {
+        int low = 0;
+        int high = starts.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < minute) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,36 @@
+-- From the original schema (V1) to what the entities expect before the index plan (V2).
+-- "if not exists" / "if exists" throughout: databases that ran a build with ddl-auto=update after the original
+-- one already have some of this.
+
+-- Ids come from pooled sequences (allocationSize 50) instead of IDENTITY columns.
+-- The sequences start at 1 here; V4 moves them past the ids already in use.
+create sequence if not exists users_seq start with 1 increment by 50;
+create sequence if not exists departments_seq start with 1 increment by 50;
+create sequence if not exists students_seq start with 1 increment by 50;
+create sequence if not exists teachers_seq start with 1 increment by 50;
+create sequence if not exists courses_seq start with 1 increment by 50;
+
+alter table users alter column id drop identity if exists;
+alter table departments alter column id drop identity if exists;
+alter table students alter column id drop identity if exists;
+alter table teachers alter column id drop identity if exists;
+alter table courses alter column id drop identity if exists;
+
+-- @Version columns (optimistic locking, JSON API ETags), capacity and the denormalized seat count
+alter table students add column if not exists version bigint default 0;
+alter table courses add column if not exists version bigint default 0;
+alter table courses add column if not exists capacity integer;
+alter table courses add column if not exists seats_taken integer default 0 not null;
+
+-- The original app could enroll a student twice in one course. Keep one row per pair,
+-- so V2 can make (student_id, course_id) the primary key.
+delete from student_courses duplicate
+using student_courses kept
+where duplicate.student_id = kept.student_id
+  and duplicate.course_id = kept.course_id
+  and duplicate.ctid > kept.ctid;
+
+-- The original app didn't keep a seat count: count the existing enrollments once
+update courses c
+set seats_taken = (select count(*) from student_courses sc where sc.course_id = c.id)
+where seats_taken <> (select count(*) from student_courses sc where sc.course_id = c.id);
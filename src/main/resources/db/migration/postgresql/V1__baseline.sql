@@ -0,0 +1,58 @@
+-- The schema of the original application, as Hibernate's ddl-auto=update created it: IDENTITY ids and only
+-- the columns that version had. Databases that already have these tables are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and get V1.1 onwards, which bring them up to the current entities.
+-- Hibernate gave the constraints generated names; later migrations never refer to them by name.
+
+create table users (
+    id       bigint generated by default as identity,
+    password varchar(255) not null,
+    role     varchar(255) not null,
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+create table departments (
+    id   bigint generated by default as identity,
+    name varchar(255),
+    primary key (id)
+);
+
+create table students (
+    department_id bigint,
+    id            bigint generated by default as identity,
+    user_id       bigint unique,
+    email         varchar(255),
+    name          varchar(255),
+    primary key (id)
+);
+
+create table teachers (
+    department_id bigint,
+    id            bigint generated by default as identity,
+    user_id       bigint unique,
+    email         varchar(255),
+    name          varchar(255),
+    primary key (id)
+);
+
+create table courses (
+    id          bigint generated by default as identity,
+    teacher_id  bigint,
+    description varchar(255),
+    title       varchar(255),
+    primary key (id)
+);
+
+-- No key at all: the original app could store the same enrollment twice
+create table student_courses (
+    student_id bigint not null,
+    course_id  bigint not null
+);
+
+alter table courses add constraint courses_teacher_id_fkey foreign key (teacher_id) references teachers;
+alter table student_courses add constraint student_courses_course_id_fkey foreign key (course_id) references courses;
+alter table student_courses add constraint student_courses_student_id_fkey foreign key (student_id) references students;
+alter table students add constraint students_department_id_fkey foreign key (department_id) references departments;
+alter table students add constraint students_user_id_fkey foreign key (user_id) references users;
+alter table teachers add constraint teachers_department_id_fkey foreign key (department_id) references departments;
+alter table teachers add constraint teachers_user_id_fkey foreign key (user_id) references users;
@@ -0,0 +1,28 @@
+-- Indexes for the foreign keys we filter and join on. Postgres indexes primary keys and unique columns
+-- (users.username, students.user_id, teachers.user_id) by itself, but not plain foreign keys.
+
+-- student_courses: (student_id, course_id) becomes the primary key instead of a separate unique constraint.
+-- Hibernate named that constraint itself, so look it up rather than guessing.
+do $$
+declare
+    constraint_name text;
+begin
+    for constraint_name in
+        select conname from pg_constraint where conrelid = 'student_courses'::regclass and contype = 'u'
+    loop
+        execute format('alter table student_courses drop constraint %I', constraint_name);
+    end loop;
+end $$;
+
+alter table student_courses add constraint student_courses_pkey primary key (student_id, course_id);
+
+-- The primary key answers "courses of a student"; this one answers "students of a course"
+-- (rosters, seat reconciliation, the FK check when a course is deleted)
+create index if not exists student_courses_course_id_idx on student_courses (course_id, student_id);
+
+-- Directory filter, department overview counts, department delete guard
+create index if not exists students_department_id_idx on students (department_id);
+create index if not exists teachers_department_id_idx on teachers (department_id);
+
+-- Catalog join to teachers, courses-per-department counts
+create index if not exists courses_teacher_id_idx on courses (teacher_id);
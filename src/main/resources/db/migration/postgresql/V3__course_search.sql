@@ -0,0 +1,20 @@
+-- Objects behind course search (see CourseSearchService).
+-- "if not exists" because databases that ran the app before migrations already have them.
+
+-- Trigram matching for the typo fallback
+create extension if not exists pg_trgm;
+
+-- Title (weight A) + description (weight B), kept up to date by Postgres itself
+alter table courses add column if not exists search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) stored;
+
+create index if not exists courses_search_vector_idx on courses using gin (search_vector);
+create index if not exists courses_title_trgm_idx on courses using gin (title gin_trgm_ops);
+
+-- Teacher names live in another table, so they get their own indexes.
+-- The expression must stay identical to the one in CourseSearchService.
+create index if not exists teachers_name_fts_idx on teachers using gin (to_tsvector('simple', coalesce(name, '')));
+create index if not exists teachers_name_trgm_idx on teachers using gin (name gin_trgm_ops);
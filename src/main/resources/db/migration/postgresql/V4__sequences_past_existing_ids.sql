@@ -0,0 +1,19 @@
+-- The entities used to get their ids from IDENTITY columns before they switched to pooled sequences.
+-- On a database created before that switch the sequences start at 1 while the tables already have rows,
+-- so move every sequence that is behind past the highest existing id (never backwards, empty tables untouched).
+-- setval(max) makes the next nextval() max + 50, and Hibernate's pooled optimizer hands out (max, max + 50].
+
+select setval('users_seq', (select max(id) from users))
+where (select max(id) from users) >= (select last_value from users_seq);
+
+select setval('departments_seq', (select max(id) from departments))
+where (select max(id) from departments) >= (select last_value from departments_seq);
+
+select setval('students_seq', (select max(id) from students))
+where (select max(id) from students) >= (select last_value from students_seq);
+
+select setval('teachers_seq', (select max(id) from teachers))
+where (select max(id) from teachers) >= (select last_value from teachers_seq);
+
+select setval('courses_seq', (select max(id) from courses))
+where (select max(id) from courses) >= (select last_value from courses_seq);
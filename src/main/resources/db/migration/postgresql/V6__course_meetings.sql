@@ -0,0 +1,15 @@
+-- Weekly meeting slots of a course (Course.meetings, see TimetableIndex for the conflict check on enroll).
+-- A slot never crosses midnight; back-to-back slots (one ends at 10:00, the next starts at 10:00) don't conflict.
+
+create table course_meetings (
+    course_id   bigint      not null references courses (id) on delete cascade,
+    day_of_week varchar(16) not null check (day_of_week in
+                    ('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY')),
+    start_time  time        not null,
+    end_time    time        not null,
+    room        varchar(255),
+    check (end_time > start_time)
+);
+
+-- Loading a course's slots, and the slots of a student's courses (joined from student_courses)
+create index course_meetings_course_id_idx on course_meetings (course_id);
@@ -0,0 +1,14 @@
+-- Students waiting for a seat in a full course (WaitlistService, WaitlistPromoter).
+-- First come, first served: the id is the place in the queue. A promotion deletes the row in the same
+-- transaction that inserts the enrollment, so a row is promoted once whatever crashes or restarts.
+
+create table course_waitlist (
+    id         bigserial primary key,
+    course_id  bigint    not null references courses (id) on delete cascade,
+    student_id bigint    not null references students (id) on delete cascade,
+    joined_at  timestamp not null default now(),
+    unique (student_id, course_id)
+);
+
+-- The head of a course's queue, and "how many are ahead of me"
+create index course_waitlist_course_id_idx on course_waitlist (course_id, id);
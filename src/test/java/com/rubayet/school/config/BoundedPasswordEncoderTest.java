@@ -0,0 +1,70 @@
+package com.rubayet.school.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    // Compares plainly, but can be made to hang until released
+    private static class SlowEncoder implements PasswordEncoder {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+
+    @Test
+    void checksOnThePool() {
+        SlowEncoder slow = new SlowEncoder();
+        slow.release.countDown();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 1, new SimpleMeterRegistry())) {
+            assertTrue(encoder.matches("secret", "secret"));
+            assertFalse(encoder.matches("wrong", "secret"));
+            assertEquals("secret", encoder.encode("secret"));
+        }
+    }
+
+    @Test
+    void shedsChecksBeyondThreadsAndQueue() throws Exception {
+        SlowEncoder slow = new SlowEncoder();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 1, meterRegistry)) {
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "a"));
+            assertTrue(slow.started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "b"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (encoder.queued() == 0 && System.nanoTime() < deadline) {
+                Thread.onSpinWait(); // until the second check sits in the queue
+            }
+
+            assertThrows(BoundedPasswordEncoder.PasswordCheckOverloadedException.class,
+                    () -> encoder.matches("c", "c"));
+            assertEquals(1, meterRegistry.get("school.login.throttled").tag("reason", "overloaded").counter().count());
+
+            slow.release.countDown();
+            assertTrue(running.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
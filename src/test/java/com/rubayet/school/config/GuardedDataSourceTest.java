@@ -0,0 +1,97 @@
+package com.rubayet.school.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GuardedDataSourceTest {
+
+    private static DataSource pool() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        return target;
+    }
+
+    @Test
+    void closingTheConnectionGivesThePermitBack() throws Exception {
+        GuardedDataSource dataSource = new GuardedDataSource(pool(), 2, 10, Duration.ofSeconds(1));
+
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, dataSource.availablePermits());
+
+        connection.close();
+        connection.close(); // closing twice must not hand out an extra permit
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    @Test
+    void closeIsPassedToTheRealConnection() throws Exception {
+        Connection real = mock(Connection.class);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(real);
+        GuardedDataSource dataSource = new GuardedDataSource(target, 1, 1, Duration.ofSeconds(1));
+
+        dataSource.getConnection().close();
+
+        verify(real).close();
+    }
+
+    @Test
+    void timesOutWhenAllPermitsAreHeld() throws Exception {
+        GuardedDataSource dataSource = new GuardedDataSource(pool(), 1, 10, Duration.ofMillis(50));
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void rejectsImmediatelyWhenTheQueueIsFull() throws Exception {
+        GuardedDataSource dataSource = new GuardedDataSource(pool(), 1, 0, Duration.ofSeconds(30));
+        dataSource.getConnection();
+
+        long start = System.nanoTime();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void neverMoreHoldersThanPermits() throws Exception {
+        GuardedDataSource dataSource = new GuardedDataSource(pool(), 3, 1000, Duration.ofSeconds(30));
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger maxHolders = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(200);
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                threads.execute(() -> {
+                    try (Connection ignored = dataSource.getConnection()) {
+                        maxHolders.accumulateAndGet(holders.incrementAndGet(), Math::max);
+                        Thread.sleep(1);
+                        holders.decrementAndGet();
+                    } catch (Exception e) {
+                        fail(e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+        }
+
+        assertTrue(maxHolders.get() <= 3);
+        assertEquals(3, dataSource.availablePermits());
+    }
+}
@@ -0,0 +1,29 @@
+package com.rubayet.school.config;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Fails the test if its body runs more than "value" SQL statements (@BeforeEach setup is not counted),
+// or more than "transactions" transactions when that is set.
+//
+//   @Test
+//   @MaxQueries(2)
+//   void listCourses() throws Exception {
+//       mockMvc.perform(get("/courses")).andExpect(status().isOk());
+//   }
+//
+//   @Test
+//   @MaxQueries(value = 2, transactions = 1)   // a write: one use case, one transaction
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(MaxQueriesExtension.class)
+public @interface MaxQueries {
+    int value();
+
+    // -1: not checked
+    int transactions() default -1;
+}
@@ -0,0 +1,34 @@
+package com.rubayet.school.config;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Counts the SQL statements (and transactions) of a @MaxQueries test and fails it when it goes over
+class MaxQueriesExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(MaxQueriesExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put("stats", RequestSqlStats.start());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        RequestSqlStats stats = context.getStore(NAMESPACE).remove("stats", RequestSqlStats.class);
+        stats.stop();
+
+        MaxQueries maxQueries = context.getRequiredTestMethod().getAnnotation(MaxQueries.class);
+        if (maxQueries != null && stats.statements() > maxQueries.value()) {
+            fail(context.getDisplayName() + ": expected at most " + maxQueries.value()
+                    + " SQL statements but " + stats.statements() + " were executed");
+        }
+        if (maxQueries != null && maxQueries.transactions() >= 0 && stats.transactions() > maxQueries.transactions()) {
+            fail(context.getDisplayName() + ": expected at most " + maxQueries.transactions()
+                    + " transactions but " + stats.transactions() + " were committed or rolled back");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.rubayet.school.config;
+
+import com.rubayet.school.service.RecentWriters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecentWriters recentWriters = mock(RecentWriters.class);
+    private ReplicaLagMonitor lagMonitor;
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void createRouting() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", mock(DataSource.class));
+        replicas.put("replica-2", mock(DataSource.class));
+        lagMonitor = new ReplicaLagMonitor(replicas, Duration.ofSeconds(5), Duration.ofSeconds(1), meterRegistry);
+        lagMonitor.update("replica-1", 0);
+        lagMonitor.update("replica-2", 0);
+        routing = new ReadWriteRoutingDataSource(mock(DataSource.class), replicas, lagMonitor, recentWriters, meterRegistry);
+    }
+
+    @AfterEach
+    void clearContext() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void writesAndPlainReadsGoToThePrimary() {
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransactionsAreSpreadOverTheReplicas() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object first = routing.determineCurrentLookupKey();
+        Object second = routing.determineCurrentLookupKey();
+
+        assertNotEquals(ReadWriteRoutingDataSource.PRIMARY, first);
+        assertNotEquals(ReadWriteRoutingDataSource.PRIMARY, second);
+        assertNotEquals(first, second);
+        assertEquals(2, meterRegistry.get("school.datasource.reads").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    void laggingOrUnreachableReplicasAreSkipped() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        lagMonitor.update("replica-1", 60_000);
+
+        assertEquals("replica-2", routing.determineCurrentLookupKey());
+        assertEquals("replica-2", routing.determineCurrentLookupKey());
+
+        lagMonitor.update("replica-2", -1);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void aUserWhoJustWroteReadsFromThePrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(recentWriters.recentlyWrote()).thenReturn(true);
+
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        assertEquals(1, meterRegistry.get("school.datasource.reads").tag("target", "primary").counter().count());
+    }
+}
@@ -0,0 +1,115 @@
+package com.rubayet.school.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.FactorGrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.web.servlet.FlashMap;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionAttributeCodecTest {
+
+    private final SessionAttributeCodec codec = new SessionAttributeCodec(getClass().getClassLoader());
+
+    // What form login leaves in the session: credentials erased, password factor, request details
+    private static SecurityContextImpl login(String username) {
+        User user = new User(username, "{bcrypt}hash", List.of(new SimpleGrantedAuthority("ROLE_STUDENT")));
+        user.eraseCredentials();
+        List<GrantedAuthority> authorities = new ArrayList<>(user.getAuthorities());
+        authorities.add(FactorGrantedAuthority.withAuthority(FactorGrantedAuthority.PASSWORD_AUTHORITY)
+                .issuedAt(Instant.parse("2026-09-01T08:30:00.123456789Z")).build());
+        UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated(user, null, authorities);
+        token.setDetails(new WebAuthenticationDetails("10.0.0.7", "old-session-id"));
+        return new SecurityContextImpl(token);
+    }
+
+    @Test
+    void loginRoundTripsThroughTheCompactFormat() {
+        SecurityContextImpl original = login("s1");
+
+        byte[] bytes = codec.serialize(original);
+        assertEquals(SessionAttributeCodec.SECURITY_CONTEXT, bytes[0]);
+
+        SecurityContext copy = (SecurityContext) codec.deserialize(bytes);
+        Authentication authentication = copy.getAuthentication();
+        assertInstanceOf(UsernamePasswordAuthenticationToken.class, authentication);
+        assertTrue(authentication.isAuthenticated());
+        assertNull(authentication.getCredentials());
+        assertEquals("s1", authentication.getName());
+        assertEquals(original.getAuthentication().getAuthorities(), authentication.getAuthorities());
+
+        User user = (User) authentication.getPrincipal();
+        assertEquals(List.copyOf(((User) original.getAuthentication().getPrincipal()).getAuthorities()),
+                List.copyOf(user.getAuthorities()));
+        assertNull(user.getPassword());
+    }
+
+    @Test
+    void compactFormatIsAFractionOfJavaSerialization() {
+        SecurityContextImpl context = login("s1");
+
+        int compact = codec.serialize(context).length;
+        int java = new SerializingConverter().convert(context).length;
+
+        assertTrue(compact * 10 < java, "compact " + compact + " bytes, Java serialization " + java + " bytes");
+    }
+
+    @Test
+    void sameLoginIsDecodedOnceButEachRequestGetsItsOwnContext() {
+        byte[] bytes = codec.serialize(login("s1"));
+
+        SecurityContext first = (SecurityContext) codec.deserialize(bytes);
+        SecurityContext second = (SecurityContext) codec.deserialize(bytes.clone());
+
+        // Logout clears the context in place, so it must not be shared
+        assertNotSame(first, second);
+        assertSame(first.getAuthentication(), second.getAuthentication());
+    }
+
+    @Test
+    void otherAttributesFallBackToJavaSerialization() {
+        FlashMap flash = new FlashMap();
+        flash.put("error", "Sorry, this course is full.");
+        ArrayList<FlashMap> flashMaps = new ArrayList<>(List.of(flash));
+
+        byte[] bytes = codec.serialize(flashMaps);
+
+        assertEquals(SessionAttributeCodec.JAVA, bytes[0]);
+        assertEquals(flashMaps, codec.deserialize(bytes));
+    }
+
+    @Test
+    void unusualAuthenticationIsKeptWhole() {
+        // Not authenticated: not the shape form login produces
+        SecurityContextImpl context = new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.unauthenticated("s1", "secret"));
+
+        byte[] bytes = codec.serialize(context);
+
+        assertEquals(SessionAttributeCodec.JAVA, bytes[0]);
+        assertEquals("secret", ((SecurityContext) codec.deserialize(bytes)).getAuthentication().getCredentials());
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> codec.deserialize(new byte[]{42}));
+    }
+}
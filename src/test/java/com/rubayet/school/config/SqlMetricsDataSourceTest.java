@@ -0,0 +1,192 @@
+package com.rubayet.school.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SqlMetricsDataSourceTest {
+
+    private RequestSqlStats stats;
+
+    @AfterEach
+    void clear() {
+        if (stats != null) {
+            stats.stop();
+        }
+    }
+
+    private static SqlMetricsDataSource dataSource(Connection real) throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(real);
+        return new SqlMetricsDataSource(target, Duration.ofSeconds(1), 1.0);
+    }
+
+    private static Connection connection() throws Exception {
+        Connection real = mock(Connection.class);
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.executeQuery()).thenReturn(mock(ResultSet.class));
+        when(real.prepareStatement(anyString())).thenReturn(prepared);
+        when(real.createStatement()).thenReturn(mock(Statement.class));
+        return real;
+    }
+
+    @Test
+    void countsEveryExecutedStatementOfTheRequest() throws Exception {
+        SqlMetricsDataSource dataSource = dataSource(connection());
+        stats = RequestSqlStats.start();
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement("select 1");
+            statement.executeQuery();
+            statement.executeQuery();
+            connection.createStatement().executeUpdate("delete from courses");
+            connection.prepareStatement("insert into courses values (?)").executeBatch(); // one round trip
+        }
+
+        assertEquals(4, stats.statements());
+        assertTrue(stats.nanos() >= 0);
+    }
+
+    @Test
+    void countsCommitsAndRollbacksAsTransactions() throws Exception {
+        SqlMetricsDataSource dataSource = dataSource(connection());
+        stats = RequestSqlStats.start();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.commit();
+            connection.rollback(connection.setSavepoint()); // the transaction goes on
+            connection.rollback();
+        }
+
+        assertEquals(2, stats.transactions());
+        assertEquals(0, stats.statements());
+    }
+
+    @Test
+    void preparingWithoutExecutingIsNotCounted() throws Exception {
+        SqlMetricsDataSource dataSource = dataSource(connection());
+        stats = RequestSqlStats.start();
+
+        dataSource.getConnection().prepareStatement("select 1").close();
+
+        assertEquals(0, stats.statements());
+    }
+
+    @Test
+    void nestedCountersBothSeeTheStatements() throws Exception {
+        SqlMetricsDataSource dataSource = dataSource(connection());
+        stats = RequestSqlStats.start();
+
+        RequestSqlStats inner = RequestSqlStats.start();
+        dataSource.getConnection().prepareStatement("select 1").executeQuery();
+        inner.stop();
+        dataSource.getConnection().prepareStatement("select 2").executeQuery();
+
+        assertEquals(1, inner.statements());
+        assertEquals(2, stats.statements());
+        assertSame(stats, RequestSqlStats.current());
+    }
+
+    @Test
+    void statementsOutsideARequestAreStillPassedThrough() throws Exception {
+        Connection real = connection();
+        SqlMetricsDataSource dataSource = dataSource(real);
+
+        dataSource.getConnection().prepareStatement("select 1").executeQuery();
+
+        verify(real).prepareStatement("select 1");
+        assertNull(RequestSqlStats.current());
+    }
+
+    @Test
+    void filterRecordsSqlPerControllerMethod() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        RequestSqlMetricsFilter filter = new RequestSqlMetricsFilter();
+        ReflectionTestUtils.setField(filter, "meterRegistry", registry);
+        SqlMetricsDataSource dataSource = dataSource(connection());
+
+        HandlerMethod handler = new HandlerMethod(new SampleController(), SampleController.class.getMethod("list"));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/courses");
+        FilterChain chain = (req, res) -> {
+            // What the DispatcherServlet does once it picked the controller method
+            req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+            try (Connection connection = dataSource.getConnection()) {
+                connection.prepareStatement("select 1").executeQuery();
+                connection.prepareStatement("select 2").executeQuery();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        var statements = registry.get("school.request.sql.statements").tag("handler", "SampleController#list").summary();
+        assertEquals(1, statements.count());
+        assertEquals(2.0, statements.totalAmount());
+        assertEquals(1, registry.get("school.request.sql.time").tag("handler", "SampleController#list").timer().count());
+        assertNull(RequestSqlStats.current()); // cleaned up after the request
+    }
+
+    @Test
+    void requestOverItsBudgetIsCounted() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        RequestSqlMetricsFilter filter = new RequestSqlMetricsFilter();
+        ReflectionTestUtils.setField(filter, "meterRegistry", registry);
+        ReflectionTestUtils.setField(filter, "budgetEnabled", true);
+        ReflectionTestUtils.setField(filter, "defaultBudget", 20);
+        SqlMetricsDataSource dataSource = dataSource(connection());
+
+        HandlerMethod handler = new HandlerMethod(new SampleController(), SampleController.class.getMethod("list"));
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+            try (Connection connection = dataSource.getConnection()) {
+                for (int i = 0; i < 3; i++) { // @QueryBudget(2)
+                    connection.prepareStatement("select " + i).executeQuery();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        filter.doFilter(new MockHttpServletRequest("GET", "/courses"), new MockHttpServletResponse(), chain);
+
+        assertEquals(1.0, registry.get("school.request.sql.over_budget").tag("handler", "SampleController#list").counter().count());
+    }
+
+    @Test
+    void assertionHelperCountsStatements() throws Throwable {
+        SqlMetricsDataSource dataSource = dataSource(connection());
+
+        int statements = SqlStatements.count(() -> dataSource.getConnection().prepareStatement("select 1").executeQuery());
+
+        assertEquals(1, statements);
+        assertThrows(AssertionError.class, () -> SqlStatements.assertAtMost(0,
+                () -> dataSource.getConnection().prepareStatement("select 1").executeQuery()));
+    }
+
+    static class SampleController {
+        @QueryBudget(2)
+        public String list() {
+            return "list";
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.rubayet.school.config;
+
+import org.junit.jupiter.api.function.Executable;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Test helpers to pin down how many SQL statements a piece of code runs.
+//
+//   SqlStatements.assertAtMost(2, () -> mockMvc.perform(get("/courses")));
+//
+// Counts everything that goes through SqlMetricsDataSource on the calling thread
+// (MockMvc requests run on the test's thread, so their statements are included).
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    // Runs the action and returns how many SQL statements it executed
+    public static int count(Executable action) throws Throwable {
+        RequestSqlStats stats = RequestSqlStats.start();
+        try {
+            action.execute();
+        } finally {
+            stats.stop();
+        }
+        return stats.statements();
+    }
+
+    public static void assertAtMost(int max, Executable action) throws Throwable {
+        int statements = count(action);
+        if (statements > max) {
+            fail("Expected at most " + max + " SQL statements but " + statements + " were executed");
+        }
+    }
+}
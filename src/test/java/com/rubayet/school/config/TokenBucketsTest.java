@@ -0,0 +1,134 @@
+package com.rubayet.school.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketsTest {
+
+    // A clock we can move forward by hand
+    private static class MutableClock extends Clock {
+        private volatile long millis;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    @Test
+    void burstThenOnePerInterval() {
+        MutableClock clock = new MutableClock();
+        TokenBuckets buckets = new TokenBuckets(3, Duration.ofSeconds(10), 100, clock);
+
+        assertEquals(0, buckets.tryTake("nabil"));
+        assertEquals(0, buckets.tryTake("nabil"));
+        assertEquals(0, buckets.tryTake("nabil"));
+        assertEquals(10_000, buckets.tryTake("nabil"));
+
+        clock.millis += 4_000;
+        assertEquals(6_000, buckets.tryTake("nabil"));
+        clock.millis += 6_000;
+        assertEquals(0, buckets.tryTake("nabil"));
+        assertTrue(buckets.tryTake("nabil") > 0);
+    }
+
+    @Test
+    void keysAreIndependent() {
+        TokenBuckets buckets = new TokenBuckets(1, Duration.ofSeconds(10), 100, new MutableClock());
+
+        assertEquals(0, buckets.tryTake("nabil"));
+        assertTrue(buckets.tryTake("nabil") > 0);
+        assertEquals(0, buckets.tryTake("rubayet"));
+    }
+
+    @Test
+    void bucketsAreDroppedOnceFullAgain() {
+        MutableClock clock = new MutableClock();
+        TokenBuckets buckets = new TokenBuckets(1, Duration.ofSeconds(1), 10, clock);
+
+        for (int i = 0; i < 10; i++) {
+            buckets.tryTake("key" + i);
+        }
+        clock.millis += 5_000; // every bucket is full again
+        buckets.tryTake("one-more");
+
+        assertEquals(1, buckets.size());
+    }
+
+    @Test
+    void staysBoundedUnderKeyCycling() {
+        TokenBuckets buckets = new TokenBuckets(1, Duration.ofMinutes(1), 100, new MutableClock());
+
+        for (int i = 0; i < 1_000; i++) {
+            buckets.tryTake("key" + i);
+        }
+
+        assertTrue(buckets.size() <= 100);
+    }
+
+    @Test
+    void throttledBucketSurvivesKeyCycling() {
+        TokenBuckets buckets = new TokenBuckets(1, Duration.ofMinutes(1), 100, new MutableClock());
+
+        assertEquals(0, buckets.tryTake("nabil"));
+        // An attacker keeps trying one account while cycling through fresh keys to push it out
+        for (int i = 0; i < 1_000; i++) {
+            buckets.tryTake("key" + i);
+            if (i % 10 == 0) {
+                assertTrue(buckets.tryTake("nabil") > 0);
+            }
+        }
+
+        assertTrue(buckets.tryTake("nabil") > 0);
+        assertTrue(buckets.size() <= 100);
+    }
+
+    @Test
+    void concurrentTakersNeverGetMoreThanTheBurst() throws Exception {
+        TokenBuckets buckets = new TokenBuckets(50, Duration.ofHours(1), 100, new MutableClock());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    int granted = 0;
+                    for (int i = 0; i < 100; i++) {
+                        if (buckets.tryTake("shared") == 0) {
+                            granted++;
+                        }
+                    }
+                    return granted;
+                }));
+            }
+            int granted = 0;
+            for (Future<Integer> result : results) {
+                granted += result.get();
+            }
+            assertEquals(50, granted);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
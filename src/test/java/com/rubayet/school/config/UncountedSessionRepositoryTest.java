@@ -0,0 +1,25 @@
+package com.rubayet.school.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class UncountedSessionRepositoryTest {
+
+    @Test
+    void shutdownReachesTheJdbcStore() throws Exception {
+        JdbcIndexedSessionRepository jdbc = mock(JdbcIndexedSessionRepository.class);
+
+        Object bean = SessionConfig.uncountedSessionRepositoryPostProcessor()
+                .postProcessAfterInitialization(jdbc, "sessionRepository");
+
+        // The container only calls destroy() on the bean it holds, which is the wrapper
+        assertInstanceOf(UncountedSessionRepository.class, bean);
+        ((DisposableBean) bean).destroy();
+        verify(jdbc).destroy(); // stops the expired-session cleanup scheduler
+    }
+}
@@ -1,11 +1,38 @@
 package com.rubayet.school.controller;
 
+import com.rubayet.school.service.EnrollmentResult;
+import com.rubayet.school.service.EnrollmentService;
+import com.rubayet.school.service.IdempotencyKeyStore;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+
+import java.security.Principal;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+@ExtendWith(MockitoExtension.class)
 class CourseControllerTest {
 
+    private static final Principal NABIL = () -> "nabil";
+
+    @Mock
+    private EnrollmentService enrollmentService;
+
+    @Spy
+    private IdempotencyKeyStore idempotencyKeyStore = new IdempotencyKeyStore();
+
+    @InjectMocks
+    private CourseController courseController;
+
     @Test
     void listCourses() {
         String view = "courses";
@@ -21,6 +48,38 @@ class CourseControllerTest {
     }
 
     @Test
-    void toggleEnrollment() {
+    void enroll() {
+        when(enrollmentService.enroll("nabil", 7L)).thenReturn(EnrollmentResult.ENROLLED);
+
+        courseController.enroll(7L, "key-1", NABIL, new RedirectAttributesModelMap());
+        courseController.enroll(7L, "key-1", NABIL, new RedirectAttributesModelMap()); // double-click
+
+        verify(enrollmentService, times(1)).enroll("nabil", 7L);
+    }
+
+    @Test
+    void enrollThatFailedIsRunAgainOnRetry() {
+        when(enrollmentService.enroll("nabil", 7L))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(EnrollmentResult.ENROLLED);
+
+        assertThrows(QueryTimeoutException.class,
+                () -> courseController.enroll(7L, "key-1", NABIL, new RedirectAttributesModelMap()));
+        courseController.enroll(7L, "key-1", NABIL, new RedirectAttributesModelMap());
+
+        verify(enrollmentService, times(2)).enroll("nabil", 7L);
+    }
+
+    @Test
+    void unenroll() {
+        when(enrollmentService.unenroll("nabil", 7L))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(true);
+
+        assertThrows(QueryTimeoutException.class, () -> courseController.unenroll(7L, "key-2", NABIL));
+        courseController.unenroll(7L, "key-2", NABIL);
+        courseController.unenroll(7L, "key-2", NABIL); // the retry succeeded: now it is a duplicate
+
+        verify(enrollmentService, times(2)).unenroll("nabil", 7L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.rubayet.school.controller;
+
+import com.rubayet.school.service.ExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// The export slot is given back however the request ends, also when the body never gets to run.
+class ExportControllerTest {
+
+    private final ExportService exportService = mock(ExportService.class);
+    private final ExportController exportController = new ExportController();
+
+    // Tasks handed to the async executor, run (or not) by the test
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @BeforeEach
+    void oneSlot() {
+        ReflectionTestUtils.setField(exportController, "exportService", exportService);
+        ReflectionTestUtils.setField(exportController, "maxConcurrent", 1);
+        exportController.createSlots();
+    }
+
+    // What Spring MVC does with the returned body: start async processing and hand it to the executor
+    private MockHttpServletRequest startExport() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/export/students.csv");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+        asyncManager.setTaskExecutor((AsyncTaskExecutor) queued::add);
+
+        ResponseEntity<StreamingResponseBody> entity =
+                exportController.students("csv", new ServletWebRequest(request, response));
+        assertEquals(HttpStatus.OK, entity.getStatusCode());
+        asyncManager.startCallableProcessing(() -> {
+            entity.getBody().writeTo(new ByteArrayOutputStream());
+            return null;
+        });
+        return request;
+    }
+
+    private HttpStatus nextExportStatus() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        return (HttpStatus) exportController.students("csv",
+                new ServletWebRequest(request, new MockHttpServletResponse())).getStatusCode();
+    }
+
+    @Test
+    void slotIsFreedWhenTheExportFinishes() throws Exception {
+        startExport();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, nextExportStatus());
+
+        queued.forEach(Runnable::run);
+
+        verify(exportService).exportStudents(any(), any());
+        assertEquals(HttpStatus.OK, nextExportStatus());
+    }
+
+    @Test
+    void slotIsFreedWhenTheRequestEndsBeforeTheBodyRuns() throws Exception {
+        MockHttpServletRequest request = startExport();
+
+        // e.g. the client went away while the export waited for an executor thread
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(HttpStatus.OK, nextExportStatus());
+
+        // Runs late: it must neither export into a finished response nor free the slot a second time
+        queued.forEach(Runnable::run);
+        verify(exportService, never()).exportStudents(any(), any());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, nextExportStatus()); // the slot taken just above
+    }
+}
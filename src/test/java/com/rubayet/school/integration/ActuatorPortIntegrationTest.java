@@ -0,0 +1,55 @@
+package com.rubayet.school.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Through a real Tomcat: the metrics are only served on the management port, never on the port the
+// reverse proxy forwards to; the load balancer's health probes are.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ActuatorPortIntegrationTest {
+
+    @LocalServerPort private int port;
+    @LocalManagementPort private int managementPort;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void prometheusIsScrapedFromTheManagementPortWithoutALogin() throws Exception {
+        assertNotEquals(port, managementPort);
+        HttpResponse<String> scrape = get(managementPort, "/actuator/prometheus");
+
+        assertEquals(200, scrape.statusCode());
+        assertTrue(scrape.body().contains("jvm_memory_used_bytes"));
+    }
+
+    @Test
+    void applicationPortServesNoMetrics() throws Exception {
+        assertNotEquals(200, get(port, "/actuator/prometheus").statusCode());
+        assertNotEquals(200, get(port, "/actuator/metrics").statusCode());
+    }
+
+    @Test
+    void otherEndpointsStillNeedALogin() throws Exception {
+        assertNotEquals(200, get(managementPort, "/actuator/metrics").statusCode());
+    }
+
+    @Test
+    void healthProbesAreOnTheApplicationPort() throws Exception {
+        assertEquals(200, get(port, "/readyz").statusCode());
+        assertEquals(200, get(port, "/livez").statusCode());
+    }
+}
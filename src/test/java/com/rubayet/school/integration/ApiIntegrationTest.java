@@ -0,0 +1,129 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.config.SqlStatements;
+import com.rubayet.school.model.Course;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.service.EnrollmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The JSON API returns projections with an ETag, and a 304 (no body, version lookup only) when it still matches.
+@SpringBootTest
+@AutoConfigureMockMvc
+class ApiIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private EnrollmentService enrollmentService;
+
+    private Long courseId;
+    private Long studentId;
+    private String username;
+
+    @BeforeEach
+    void seed() {
+        String prefix = "api-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+        Course course = new Course();
+        course.setTitle(prefix + "course");
+        courseId = courseRepository.save(course).getId();
+
+        User user = new User();
+        user.setUsername(prefix + "student");
+        user.setPassword("x");
+        user.setRole("ROLE_STUDENT");
+        Student student = new Student();
+        student.setName(prefix + "student");
+        student.setUser(user);
+        studentId = studentRepository.save(student).getId();
+        username = user.getUsername();
+    }
+
+    private String etagOf(String url) throws Exception {
+        return mockMvc.perform(get(url).with(user("reader")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void unchangedCourseIsAnsweredWith304() throws Throwable {
+        String url = "/api/courses/" + courseId;
+        mockMvc.perform(get(url).with(user("reader")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(courseId))
+                .andExpect(jsonPath("$.enrolledCount").value(0));
+
+        String etag = etagOf(url);
+        assertNotNull(etag);
+
+        // Only the version is read, the course is not loaded
+        SqlStatements.assertAtMost(1, () ->
+                mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag).with(user("reader")))
+                        .andExpect(status().isNotModified())
+                        .andExpect(content().string("")));
+    }
+
+    @Test
+    void enrollingChangesTheCourseAndRosterEtags() throws Exception {
+        String courseEtag = etagOf("/api/courses/" + courseId);
+        String rosterEtag = etagOf("/api/courses/" + courseId + "/enrollments");
+        String catalogEtag = etagOf("/api/courses");
+
+        enrollmentService.enroll(username, courseId);
+
+        assertNotEquals(courseEtag, etagOf("/api/courses/" + courseId));
+        assertNotEquals(rosterEtag, etagOf("/api/courses/" + courseId + "/enrollments"));
+        assertNotEquals(catalogEtag, etagOf("/api/courses"));
+        mockMvc.perform(get("/api/courses/" + courseId + "/enrollments").with(user("reader")))
+                .andExpect(jsonPath("$[0].id").value(studentId))
+                .andExpect(jsonPath("$[0].username").value(username));
+    }
+
+    @Test
+    void editingAStudentChangesItsEtag() throws Exception {
+        enrollmentService.enroll(username, courseId);
+        String studentEtag = etagOf("/api/students/" + studentId);
+        String directoryEtag = etagOf("/api/students");
+        String rosterEtag = etagOf("/api/courses/" + courseId + "/enrollments");
+
+        Student student = studentRepository.findById(studentId).orElseThrow();
+        student.setEmail("new@school.edu");
+        studentRepository.save(student);
+
+        assertNotEquals(studentEtag, etagOf("/api/students/" + studentId));
+        assertNotEquals(directoryEtag, etagOf("/api/students"));
+        assertNotEquals(rosterEtag, etagOf("/api/courses/" + courseId + "/enrollments")); // the roster shows the email
+        mockMvc.perform(get("/api/students/" + studentId).with(user("reader")))
+                .andExpect(jsonPath("$.email").value("new@school.edu"));
+    }
+
+    @Test
+    void unknownIdsAre404() throws Exception {
+        mockMvc.perform(get("/api/courses/-1").with(user("reader"))).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/courses/-1/enrollments").with(user("reader"))).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/students/-1").with(user("reader"))).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void anonymousCallersAreSentToLogin() throws Exception {
+        mockMvc.perform(get("/api/departments")).andExpect(status().is3xxRedirection());
+    }
+}
@@ -0,0 +1,78 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.model.Course;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The catalog cards come from the fragment cache (CourseCardCache): after an enrollment the page must show
+// the new seat count, and the buttons must still be drawn for the student looking at the page.
+@SpringBootTest
+@AutoConfigureMockMvc
+class CourseCatalogIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private StudentRepository studentRepository;
+
+    @Test
+    void cachedCardsFollowEnrollments() throws Exception {
+        String prefix = "catalog-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Course course = new Course();
+        course.setTitle(prefix + "course");
+        course.setCapacity(1);
+        Long courseId = courseRepository.save(course).getId();
+        String first = student(prefix + "first");
+        String second = student(prefix + "second");
+
+        String page = catalog(first);
+        assertTrue(page.contains(prefix + "course"), page);
+        assertTrue(page.contains("0 / 1 seats taken"), page);
+        assertTrue(page.contains("/courses/" + courseId + "/enroll"), page);
+
+        mockMvc.perform(post("/courses/" + courseId + "/enroll").with(user(first).roles("STUDENT")).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        // Same card for both students, different buttons
+        page = catalog(first);
+        assertTrue(page.contains("1 / 1 seats taken"), page);
+        assertTrue(page.contains("/courses/" + courseId + "/unenroll"), page);
+        page = catalog(second);
+        assertTrue(page.contains("1 / 1 seats taken"), page);
+        assertTrue(page.contains("Course Full"), page);
+    }
+
+    private String catalog(String username) throws Exception {
+        return mockMvc.perform(get("/courses").with(user(username).roles("STUDENT")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String student(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setRole("ROLE_STUDENT");
+        Student student = new Student();
+        student.setName(username);
+        student.setEmail(username + "@school.edu");
+        student.setUser(user);
+        studentRepository.save(student);
+        return username;
+    }
+}
@@ -0,0 +1,69 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.dto.CourseSearchPage;
+import com.rubayet.school.dto.CourseSummary;
+import com.rubayet.school.model.Course;
+import com.rubayet.school.model.Teacher;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.TeacherRepository;
+import com.rubayet.school.service.CourseSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The search SQL and its row mapper against the real schema: matches by title and by teacher name,
+// and a course without a capacity comes back uncapped, not full.
+@SpringBootTest
+class CourseSearchIntegrationTest {
+
+    @Autowired private CourseSearchService courseSearchService;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private TeacherRepository teacherRepository;
+
+    @Test
+    void uncappedCourseIsNotShownAsFull() {
+        String word = "searchtest" + UUID.randomUUID().toString().substring(0, 8).replaceAll("[0-9]", "x");
+        Long uncapped = course(word + " seminar", null, null);
+        Long capped = course(word + " workshop", 1, null);
+
+        CourseSearchPage page = courseSearchService.search(word, 0, false);
+
+        assertFalse(page.fuzzy());
+        CourseSummary open = find(page.courses(), uncapped);
+        assertNull(open.capacity());
+        assertFalse(open.isFull());
+        assertEquals(1, find(page.courses(), capped).capacity());
+    }
+
+    @Test
+    void coursesAreFoundByTheirTeachersName() {
+        String surname = "searchtest" + UUID.randomUUID().toString().substring(0, 8).replaceAll("[0-9]", "y");
+        Teacher teacher = new Teacher();
+        teacher.setName("Amina " + surname);
+        teacher = teacherRepository.save(teacher);
+        Long taught = course("Applied statistics", 30, teacher);
+
+        CourseSearchPage page = courseSearchService.search(surname, 0, false);
+
+        assertFalse(page.fuzzy());
+        assertEquals(List.of(taught), page.courses().stream().map(CourseSummary::id).toList());
+        assertEquals("Amina " + surname, page.courses().getFirst().teacherName());
+    }
+
+    private Long course(String title, Integer capacity, Teacher teacher) {
+        Course course = new Course();
+        course.setTitle(title);
+        course.setCapacity(capacity);
+        course.setTeacher(teacher);
+        return courseRepository.save(course).getId();
+    }
+
+    private static CourseSummary find(List<CourseSummary> courses, Long id) {
+        return courses.stream().filter(course -> course.id().equals(id)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,53 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.model.Department;
+import com.rubayet.school.repository.DepartmentRepository;
+import com.rubayet.school.service.DepartmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class DepartmentCacheIntegrationTest {
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private long hits() {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(DepartmentRepository.ALL_CACHE);
+        return cache.getNativeCache().stats().hitCount();
+    }
+
+    @Test
+    void listIsServedFromCacheUntilADepartmentIsSaved() {
+        Department department = new Department();
+        department.setName("cache-" + UUID.randomUUID());
+        department = departmentRepository.save(department);
+        Long id = department.getId();
+
+        departmentRepository.findAllOptions();
+        long hitsBefore = hits();
+        assertTrue(departmentRepository.findAllOptions().stream().anyMatch(option -> option.id().equals(id)));
+        assertEquals(hitsBefore + 1, hits());
+
+        // The existence check behind findReferenceIfExists goes through the cache as well
+        assertNotNull(departmentService.findReferenceIfExists(id));
+        assertEquals(hitsBefore + 2, hits());
+
+        // A write evicts the list, so the next read sees the change
+        departmentRepository.deleteById(id);
+        assertNull(departmentService.findReferenceIfExists(id));
+    }
+}
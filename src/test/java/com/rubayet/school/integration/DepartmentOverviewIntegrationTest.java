@@ -0,0 +1,131 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.dto.DepartmentStats;
+import com.rubayet.school.model.Course;
+import com.rubayet.school.model.Department;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.Teacher;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.DepartmentRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.repository.TeacherRepository;
+import com.rubayet.school.service.EnrollmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Department overview counts and the delete guard, both without loading any collection.
+@SpringBootTest
+@AutoConfigureMockMvc
+class DepartmentOverviewIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private TeacherRepository teacherRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private EnrollmentService enrollmentService;
+
+    private String prefix;
+    private Department busy;
+
+    @BeforeEach
+    void seed() {
+        prefix = "overview-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        busy = department("busy");
+
+        Teacher teacher = new Teacher();
+        teacher.setName(prefix + "teacher");
+        teacher.setDepartment(busy);
+        teacher = teacherRepository.save(teacher);
+
+        List<Long> courseIds = List.of(course(teacher, "a"), course(teacher, "b"));
+        for (String name : List.of("s1", "s2")) {
+            User user = new User();
+            user.setUsername(prefix + name);
+            user.setPassword("x");
+            user.setRole("ROLE_STUDENT");
+            Student student = new Student();
+            student.setName(prefix + name);
+            student.setUser(user);
+            student.setDepartment(busy);
+            studentRepository.save(student);
+        }
+        // s1 takes both courses, s2 takes one
+        enrollmentService.enroll(prefix + "s1", courseIds.get(0));
+        enrollmentService.enroll(prefix + "s1", courseIds.get(1));
+        enrollmentService.enroll(prefix + "s2", courseIds.get(0));
+    }
+
+    private Department department(String name) {
+        Department department = new Department();
+        department.setName(prefix + name);
+        return departmentRepository.save(department);
+    }
+
+    private Long course(Teacher teacher, String title) {
+        Course course = new Course();
+        course.setTitle(prefix + title);
+        course.setTeacher(teacher);
+        return courseRepository.save(course).getId();
+    }
+
+    private DepartmentStats statsOf(Long departmentId) {
+        return departmentRepository.findAllStats().stream()
+                .filter(stats -> stats.id().equals(departmentId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void countsComeFromOneGroupedQuery() {
+        DepartmentStats stats = statsOf(busy.getId());
+
+        assertEquals(new DepartmentStats(busy.getId(), prefix + "busy", 2, 1, 2, 3), stats);
+        assertFalse(stats.isDeletable());
+    }
+
+    @Test
+    void emptyDepartmentHasZeroCountsAndCanBeDeleted() throws Exception {
+        Department empty = department("empty");
+        assertEquals(new DepartmentStats(empty.getId(), prefix + "empty", 0, 0, 0, 0), statsOf(empty.getId()));
+
+        mockMvc.perform(get("/departments/delete/" + empty.getId()).with(user("t").roles("TEACHER")))
+                .andExpect(status().is3xxRedirection());
+        assertFalse(departmentRepository.existsById(empty.getId()));
+    }
+
+    @Test
+    void departmentInUseIsNotDeleted() throws Exception {
+        mockMvc.perform(get("/departments/delete/" + busy.getId()).with(user("t").roles("TEACHER")))
+                .andExpect(status().isOk())
+                .andExpect(model().attributeExists("error"));
+        assertTrue(departmentRepository.existsById(busy.getId()));
+    }
+
+    @Test
+    void teachersAloneAlsoBlockTheDelete() throws Exception {
+        Department teachersOnly = department("teachers-only");
+        Teacher teacher = new Teacher();
+        teacher.setName(prefix + "lonely-teacher");
+        teacher.setDepartment(teachersOnly);
+        teacherRepository.save(teacher);
+
+        mockMvc.perform(get("/departments/delete/" + teachersOnly.getId()).with(user("t").roles("TEACHER")))
+                .andExpect(model().attributeExists("error"));
+        assertTrue(departmentRepository.existsById(teachersOnly.getId()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.model.Course;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.service.EnrollmentResult;
+import com.rubayet.school.service.EnrollmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class EnrollmentConcurrencyIntegrationTest {
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Test
+    void concurrentEnrollmentsNeverOverbook() throws Exception {
+        // Unique names so the test can run against a shared database
+        String prefix = "conc-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        int capacity = 5;
+        int students = 40;
+
+        Course course = new Course();
+        course.setTitle(prefix + "course");
+        course.setCapacity(capacity);
+        course = courseRepository.save(course);
+
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            User user = new User();
+            user.setUsername(prefix + i);
+            user.setPassword("x");
+            user.setRole("ROLE_STUDENT");
+            Student student = new Student();
+            student.setName(user.getUsername());
+            student.setUser(user);
+            studentRepository.save(student);
+            usernames.add(user.getUsername());
+        }
+
+        Long courseId = course.getId();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<EnrollmentResult>> futures = new ArrayList<>();
+        for (String username : usernames) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return enrollmentService.enroll(username, courseId);
+            }));
+        }
+        start.countDown();
+
+        int admitted = 0;
+        for (Future<EnrollmentResult> future : futures) {
+            if (future.get(60, TimeUnit.SECONDS) == EnrollmentResult.ENROLLED) {
+                admitted++;
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(capacity, admitted);
+        assertEquals(capacity, courseRepository.findSeatSnapshot(courseId).seatsTaken());
+        assertEquals(capacity, courseRepository.findById(courseId).orElseThrow().getSeatsTaken());
+    }
+}
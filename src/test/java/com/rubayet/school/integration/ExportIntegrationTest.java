@@ -0,0 +1,109 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.model.Course;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.service.EnrollmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Exports stream every row of the table, in the requested format, after an async hand-off.
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private EnrollmentService enrollmentService;
+
+    private String prefix;
+    private Long studentId;
+    private Long courseId;
+
+    @BeforeEach
+    void seed() {
+        prefix = "export-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+        Course course = new Course();
+        course.setTitle(prefix + "course, with comma");
+        courseId = courseRepository.save(course).getId();
+
+        User user = new User();
+        user.setUsername(prefix + "student");
+        user.setPassword("x");
+        user.setRole("ROLE_STUDENT");
+        Student student = new Student();
+        student.setName(prefix + "student");
+        student.setEmail(prefix + "student@school.edu");
+        student.setUser(user);
+        studentId = studentRepository.save(student).getId();
+
+        enrollmentService.enroll(user.getUsername(), courseId);
+    }
+
+    // The body is written on the async executor: start the request, then collect what it wrote
+    private ResultActions export(String url) throws Exception {
+        MvcResult started = mockMvc.perform(get(url).with(user("registrar").roles("ADMIN")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void studentsCsv() throws Exception {
+        export("/export/students.csv")
+                .andExpect(header().string("Content-Disposition", containsString("students.csv")))
+                .andExpect(content().string(startsWith("id,name,email,department,username\r\n")))
+                .andExpect(content().string(containsString(
+                        studentId + "," + prefix + "student," + prefix + "student@school.edu,," + prefix + "student\r\n")));
+    }
+
+    @Test
+    void coursesCsvQuotesCommas() throws Exception {
+        export("/export/courses.csv")
+                .andExpect(content().string(containsString(courseId + ",\"" + prefix + "course, with comma\",,,1,\r\n")));
+    }
+
+    @Test
+    void enrollmentsNdjson() throws Exception {
+        export("/export/enrollments.ndjson")
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(containsString(
+                        "{\"studentId\":" + studentId + ",\"studentName\":\"" + prefix + "student\",\"username\":\""
+                                + prefix + "student\",\"courseId\":" + courseId + ",\"courseTitle\":\"" + prefix + "course, with comma\"}\n")));
+    }
+
+    @Test
+    void unknownFormatIs404() throws Exception {
+        mockMvc.perform(get("/export/students.xml").with(user("registrar").roles("ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void studentsCannotExport() throws Exception {
+        mockMvc.perform(get("/export/students.csv").with(user("s").roles("STUDENT")))
+                .andExpect(status().isForbidden());
+    }
+}
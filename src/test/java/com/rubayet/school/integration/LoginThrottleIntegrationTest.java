@@ -0,0 +1,53 @@
+package com.rubayet.school.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Through a real Tomcat, as requests arrive from the load balancer (here: loopback, a trusted proxy): the address
+// bucket belongs to the client named in X-Forwarded-For, not to the balancer every request comes from.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "school.login.throttle.address.burst=1",
+        "school.login.throttle.address.interval=1h",
+        "school.login.throttle.account.burst=100"
+})
+class LoginThrottleIntegrationTest {
+
+    @LocalServerPort private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private int login(String forwardedFor) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.ofString("username=throttle-test&password=wrong"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Test
+    void clientsBehindTheBalancerHaveTheirOwnBuckets() throws Exception {
+        assertNotEquals(429, login("203.0.113.10"));
+        assertEquals(429, login("203.0.113.10"));
+
+        // Same balancer, another client: not throttled
+        assertNotEquals(429, login("203.0.113.11"));
+    }
+
+    @Test
+    void addressesTheClientAddsItselfAreIgnored() throws Exception {
+        assertNotEquals(429, login("203.0.113.20"));
+
+        // Only the hop our proxy appended counts; whatever the client put before it doesn't get a fresh bucket
+        assertEquals(429, login("198.51.100.1, 203.0.113.20"));
+        assertEquals(429, login("198.51.100.2, 203.0.113.20"));
+    }
+}
@@ -0,0 +1,251 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.config.MaxQueries;
+import com.rubayet.school.model.Course;
+import com.rubayet.school.model.Department;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.Teacher;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.DepartmentRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.repository.TeacherRepository;
+import com.rubayet.school.service.EnrollmentService;
+import com.rubayet.school.service.UserProfileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Pins the number of SQL statements per page, so an N+1 (one query per student / course / department)
+// fails here instead of showing up as a slow page in production.
+// Every test seeds several rows of everything and starts with cold caches, so the counts are the worst case.
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetIntegrationTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private TeacherRepository teacherRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private EnrollmentService enrollmentService;
+    @Autowired private UserProfileService userProfileService;
+    @Autowired private CacheManager cacheManager;
+
+    private String studentUsername;
+    private Long studentId;
+    private Long departmentId;
+    private Long courseId;
+    private String courseTitle;
+
+    @BeforeEach
+    void seed() {
+        // Unique names so the test can run against a shared database
+        String prefix = "budget-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+        Department department = new Department();
+        department.setName(prefix + "dept");
+        department = departmentRepository.save(department);
+        departmentId = department.getId();
+
+        Teacher teacher = new Teacher();
+        teacher.setName(prefix + "teacher");
+        teacher.setUser(login(prefix + "teacher", "ROLE_TEACHER"));
+        teacher.setDepartment(department);
+        teacher = teacherRepository.save(teacher);
+
+        List<Long> courseIds = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Course course = new Course();
+            course.setTitle(prefix + "course-" + i);
+            course.setTeacher(teacher);
+            courseId = courseRepository.save(course).getId();
+            courseTitle = course.getTitle();
+            courseIds.add(courseId);
+
+            Student student = new Student();
+            student.setName(prefix + "student-" + i);
+            student.setEmail(prefix + i + "@school.edu");
+            student.setUser(login(prefix + "student-" + i, "ROLE_STUDENT"));
+            student.setDepartment(department);
+            studentId = studentRepository.save(student).getId();
+            studentUsername = student.getUser().getUsername();
+        }
+        // The last student takes every course
+        for (Long id : courseIds) {
+            enrollmentService.enroll(studentUsername, id);
+        }
+
+        // Cold caches: the budgets below include the cache misses
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        userProfileService.evict(studentUsername);
+    }
+
+    private static User login(String username, String role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setRole(role);
+        return user;
+    }
+
+    // --- StudentController ---
+
+    @Test
+    @MaxQueries(2)
+    void studentDirectory() throws Exception {
+        mockMvc.perform(get("/students").with(user(studentUsername).roles("STUDENT")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxQueries(2)
+    void studentDirectoryOfOneDepartmentSortedByName() throws Exception {
+        mockMvc.perform(get("/students").param("departmentId", departmentId.toString()).param("sort", "NAME")
+                        .with(user(studentUsername).roles("STUDENT")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxQueries(2)
+    void editStudentForm() throws Exception {
+        mockMvc.perform(get("/students/edit/" + studentId).with(user(studentUsername).roles("STUDENT")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxQueries(0)
+    void typeahead() throws Exception {
+        mockMvc.perform(get("/students/typeahead").param("q", "budget").with(user("budget-teacher").roles("TEACHER")))
+                .andExpect(status().isOk());
+    }
+
+    // Writes: one transaction each (statements are sent at commit, so they all count)
+
+    @Test
+    @MaxQueries(value = 2, transactions = 1)
+    void createStudent() throws Exception {
+        mockMvc.perform(post("/students").param("name", "New").param("email", "new@school.edu")
+                        .param("departmentId", departmentId.toString())
+                        .with(user("budget-teacher").roles("TEACHER")).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    @Test
+    @MaxQueries(value = 3, transactions = 1)
+    void updateStudent() throws Exception {
+        mockMvc.perform(post("/students/" + studentId).param("name", "Renamed").param("email", "renamed@school.edu")
+                        .param("departmentId", departmentId.toString())
+                        .with(user("budget-teacher").roles("TEACHER")).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    @Test
+    @MaxQueries(value = 5, transactions = 1)
+    void deleteStudent() throws Exception {
+        // The seeded student with enrollments in every course: their seats are given back in the same transaction
+        mockMvc.perform(get("/students/delete/" + studentId).with(user("budget-teacher").roles("TEACHER")))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    @Test
+    @MaxQueries(value = 3, transactions = 1)
+    void registerStudent() throws Exception {
+        mockMvc.perform(post("/register").param("username", "budget-" + UUID.randomUUID()).param("password", "secret")
+                        .param("role", "STUDENT").param("departmentId", departmentId.toString()).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    // --- CourseController ---
+
+    @Test
+    @MaxQueries(3)
+    void courseCatalogForAStudent() throws Exception {
+        mockMvc.perform(get("/courses").with(user(studentUsername).roles("STUDENT")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxQueries(4)
+    void courseSearch() throws Exception {
+        // Worst case: no full-text match on Postgres, so the trigram fallback runs too
+        mockMvc.perform(get("/courses/search").param("q", courseTitle).with(user(studentUsername).roles("STUDENT")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxQueries(2)
+    void unenroll() throws Exception {
+        mockMvc.perform(post("/courses/" + courseId + "/unenroll").with(user(studentUsername).roles("STUDENT")).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    @Test
+    @MaxQueries(value = 2, transactions = 1)
+    void joinWaitlist() throws Exception {
+        mockMvc.perform(post("/courses/" + courseId + "/waitlist").with(user(studentUsername).roles("STUDENT")).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    @Test
+    @MaxQueries(1)
+    void leaveWaitlist() throws Exception {
+        mockMvc.perform(post("/courses/" + courseId + "/waitlist/leave").with(user(studentUsername).roles("STUDENT")).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    // --- ApiController ---
+
+    @Test
+    @MaxQueries(2)
+    void apiCourseCatalog() throws Exception {
+        mockMvc.perform(get("/api/courses").with(user(studentUsername).roles("STUDENT")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxQueries(3)
+    void apiStudentDirectory() throws Exception {
+        mockMvc.perform(get("/api/students").with(user(studentUsername).roles("STUDENT")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxQueries(3)
+    void apiCourseRoster() throws Exception {
+        mockMvc.perform(get("/api/courses/" + courseId + "/enrollments").with(user(studentUsername).roles("STUDENT")))
+                .andExpect(status().isOk());
+    }
+
+    // --- DepartmentController / AuthController ---
+
+    @Test
+    @MaxQueries(1)
+    void departmentList() throws Exception {
+        mockMvc.perform(get("/departments").with(user("budget-teacher").roles("TEACHER")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxQueries(1)
+    void signupForm() throws Exception {
+        mockMvc.perform(get("/signup"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,108 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.model.Course;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.StudentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Replica routing against the local database standing in as its own "replica" (a database that is not a
+// standby counts as caught up). Point school.datasource.replica.urls at a second instance to try it for real.
+@SpringBootTest(properties = {
+        "school.datasource.replica.enabled=true",
+        "school.datasource.replica.urls[0]=${spring.datasource.url}",
+        "school.datasource.replica.check-interval=100ms"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private StudentRepository studentRepository;
+
+    @BeforeEach
+    void waitForTheFirstLagCheck() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("school.datasource.replica.lag").gauge().value() < 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void catalogIsReadFromTheReplicaUntilTheStudentEnrolls() throws Exception {
+        String prefix = "replica-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Course course = new Course();
+        course.setTitle(prefix + "course");
+        course.setCapacity(10);
+        Long courseId = courseRepository.save(course).getId();
+        String username = student(prefix + "student");
+
+        double replicaReads = reads("replica");
+        catalog(username, null);
+        assertTrue(reads("replica") > replicaReads);
+
+        // The session (JDBC store) carries the read-your-writes deadline to whichever instance serves the redirect
+        Cookie session = mockMvc.perform(post("/courses/" + courseId + "/enroll")
+                        .with(user(username).roles("STUDENT")).with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andReturn().getResponse().getCookie("SESSION");
+        assertNotNull(session);
+
+        // Right after their own enrollment, the student's reads stay on the primary
+        replicaReads = reads("replica");
+        double primaryReads = reads("primary");
+        String page = catalog(username, session);
+        assertTrue(page.contains("/courses/" + courseId + "/unenroll"), page);
+        assertEquals(replicaReads, reads("replica"));
+        assertTrue(reads("primary") > primaryReads);
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("school.datasource.reads").tag("target", target).counter().count();
+    }
+
+    private String catalog(String username, Cookie session) throws Exception {
+        MockHttpServletRequestBuilder request = get("/courses").with(user(username).roles("STUDENT"));
+        if (session != null) {
+            request.cookie(session);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String student(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setRole("ROLE_STUDENT");
+        Student student = new Student();
+        student.setName(username);
+        student.setEmail(username + "@school.edu");
+        student.setUser(user);
+        studentRepository.save(student);
+        return username;
+    }
+}
@@ -0,0 +1,77 @@
+package com.rubayet.school.integration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A database created by the original application (V1: IDENTITY ids, no versions or seat counts, duplicate
+// enrollments allowed) upgrades to the current schema, and its rows keep working: ids don't collide,
+// duplicates are gone, seats are counted. Runs in a throwaway database next to the test one.
+// (The test database itself is migrated from empty, and Hibernate validates it when the context starts.)
+@SpringBootTest
+class SchemaUpgradeIntegrationTest {
+
+    private static final String MIGRATIONS = "classpath:db/migration/postgresql";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.datasource.url}") private String url;
+    @Value("${spring.datasource.username}") private String username;
+    @Value("${spring.datasource.password}") private String password;
+
+    private String database;
+    private DriverManagerDataSource legacy;
+
+    @BeforeEach
+    void createDatabase() {
+        database = "upgrade_" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.execute("create database " + database);
+        legacy = new DriverManagerDataSource(url.replaceFirst("/[^/?]+(\\?|$)", "/" + database + "$1"), username, password);
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        jdbcTemplate.execute("drop database if exists " + database + " with (force)");
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure().dataSource(legacy).locations(MIGRATIONS).target(target).load();
+    }
+
+    @Test
+    void originalSchemaUpgradesWithItsData() {
+        flyway("1").migrate();
+        JdbcTemplate old = new JdbcTemplate(legacy);
+        // Rows as the original app wrote them: ids from the IDENTITY columns, one enrollment stored twice
+        old.update("insert into users (username, password, role) values ('one', 'x', 'ROLE_STUDENT'), ('two', 'x', 'ROLE_STUDENT')");
+        old.update("insert into students (name, user_id) values ('One', 1), ('Two', 2)");
+        old.update("insert into courses (title) values ('Algebra'), ('Art')");
+        old.update("insert into student_courses (student_id, course_id) values (1, 1), (1, 1), (2, 1), (2, 2)");
+
+        flyway("latest").migrate();
+
+        assertEquals(3, old.queryForObject("select count(*) from student_courses", Integer.class));
+        assertEquals(2, old.queryForObject("select seats_taken from courses where id = 1", Integer.class));
+        assertEquals(1, old.queryForObject("select seats_taken from courses where id = 2", Integer.class));
+        assertEquals(0L, old.queryForObject("select version from students where id = 1", Long.class));
+        // Hibernate's next pooled block starts after the ids already in use
+        assertTrue(old.queryForObject("select nextval('users_seq') - 49", Long.class) > 2);
+        assertTrue(old.queryForObject("select nextval('courses_seq') - 49", Long.class) > 2);
+        // The ids are now Hibernate's to assign: the old IDENTITY defaults are gone
+        assertEquals(0, old.queryForObject("""
+                select count(*) from information_schema.columns
+                where table_schema = 'public' and is_identity = 'YES'
+                  and table_name in ('users', 'departments', 'students', 'teachers', 'courses')
+                """, Integer.class));
+    }
+}
@@ -0,0 +1,77 @@
+package com.rubayet.school.integration;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sessions live in the spring_session tables, so a request carrying only the cookie is recognised
+// by any instance, and anonymous pages don't create session rows.
+@SpringBootTest
+@AutoConfigureMockMvc
+class SessionStoreIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void loginIsStoredInTheDatabaseAndEndsWithLogout() throws Exception {
+        String username = "session" + UUID.randomUUID().toString().substring(0, 8);
+        mockMvc.perform(post("/register").param("username", username).param("password", "secret")
+                        .param("role", "STUDENT").with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        Cookie session = mockMvc.perform(formLogin().user(username).password("secret"))
+                .andExpect(redirectedUrl("/students"))
+                .andReturn().getResponse().getCookie("SESSION");
+        assertNotNull(session);
+
+        // Stored compactly: the security context is a few dozen bytes, not a Java-serialized object graph
+        byte[] context = jdbcTemplate.queryForObject("""
+                select a.attribute_bytes
+                from spring_session s
+                join spring_session_attributes a on a.session_primary_id = s.primary_id
+                where s.principal_name = ? and a.attribute_name = 'SPRING_SECURITY_CONTEXT'
+                """, byte[].class, username);
+        assertEquals(1, context[0]);
+        assertTrue(context.length < 200, context.length + " bytes");
+
+        // Nothing but the cookie: the login is read back from the database
+        mockMvc.perform(get("/students").cookie(session))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/logout").cookie(session).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from spring_session where principal_name = ?", Integer.class, username));
+        mockMvc.perform(get("/students").cookie(session))
+                .andExpect(redirectedUrl("/login"));
+    }
+
+    // Not GET /login: csrf() in any test sharing this context swaps in a session-backed CSRF token repository,
+    // so a page that renders a form would create a session here though it doesn't in production
+    @Test
+    void anonymousRequestsCreateNoSession() throws Exception {
+        assertNull(mockMvc.perform(get("/courses")).andExpect(status().is3xxRedirection())
+                .andReturn().getResponse().getCookie("SESSION"));
+        assertNull(mockMvc.perform(formLogin().user("nobody-" + UUID.randomUUID()).password("wrong"))
+                .andExpect(redirectedUrl("/login?error"))
+                .andReturn().getResponse().getCookie("SESSION"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.model.Course;
+import com.rubayet.school.model.MeetingSlot;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.service.EnrollmentResult;
+import com.rubayet.school.service.EnrollmentService;
+import com.rubayet.school.service.TimetableIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+
+// Meeting slots are stored with the course, and enroll refuses a course that overlaps one the student takes,
+// also when the student's timetable has to be read back from the database.
+@SpringBootTest
+@AutoConfigureMockMvc
+class TimetableIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private EnrollmentService enrollmentService;
+    @Autowired private TimetableIndex timetableIndex;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void overlappingCoursesCannotBothBeTaken() throws Exception {
+        String prefix = "timetable-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Long math = course(prefix + "math", "09:00", "10:30");
+        Long physics = course(prefix + "physics", "10:00", "11:00");
+        Long art = course(prefix + "art", "10:30", "12:00");
+        String username = student(prefix + "student");
+
+        assertEquals(EnrollmentResult.ENROLLED, enrollmentService.enroll(username, math));
+
+        // Forget the in-memory timetable: it must come back from course_meetings + student_courses
+        timetableIndex.evictStudent(username);
+        mockMvc.perform(post("/courses/" + physics + "/enroll").with(user(username).roles("STUDENT")).with(csrf()))
+                .andExpect(flash().attribute("error", "This course meets at the same time as one of your courses."));
+        assertEquals(EnrollmentResult.ENROLLED, enrollmentService.enroll(username, art));
+
+        // After dropping math, physics fits... except that it now overlaps art
+        enrollmentService.unenroll(username, math);
+        assertEquals(EnrollmentResult.CONFLICT, enrollmentService.enroll(username, physics));
+        enrollmentService.unenroll(username, art);
+        assertEquals(EnrollmentResult.ENROLLED, enrollmentService.enroll(username, physics));
+    }
+
+    @Test
+    void enrollmentMadeOnAnotherInstanceStillConflicts() {
+        String prefix = "timetable-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Long math = course(prefix + "math", "09:00", "10:30");
+        Long physics = course(prefix + "physics", "10:00", "11:00");
+        String username = student(prefix + "student");
+        assertEquals(EnrollmentResult.ENROLLED, enrollmentService.enroll(username, math)); // timetable now cached
+
+        // Another instance enrolls the student in physics: this instance's cached timetable doesn't see it
+        jdbcTemplate.update("""
+                insert into student_courses (student_id, course_id)
+                select s.id, ? from students s join users u on u.id = s.user_id where u.username = ?
+                """, physics, username);
+        enrollmentService.unenroll(username, math);
+
+        assertEquals(EnrollmentResult.CONFLICT, enrollmentService.enroll(username, math));
+        // ... and the stale timetable was dropped, so the next attempt is refused without a write
+        assertEquals(EnrollmentResult.CONFLICT, enrollmentService.enroll(username, math));
+    }
+
+    private Long course(String title, String start, String end) {
+        Course course = new Course();
+        course.setTitle(title);
+        course.setMeetings(List.of(new MeetingSlot(DayOfWeek.MONDAY, LocalTime.parse(start), LocalTime.parse(end), "R101")));
+        return courseRepository.save(course).getId();
+    }
+
+    private String student(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setRole("ROLE_STUDENT");
+        Student student = new Student();
+        student.setName(username);
+        student.setEmail(username + "@school.edu");
+        student.setUser(user);
+        studentRepository.save(student);
+        return username;
+    }
+}
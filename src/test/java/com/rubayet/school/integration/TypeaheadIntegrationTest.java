@@ -0,0 +1,95 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.repository.UserRepository;
+import com.rubayet.school.service.TypeaheadIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The typeahead index follows sign-up, edit and delete without going back to the database,
+// and a refresh picks up what was written around it (as another instance would).
+@SpringBootTest
+@AutoConfigureMockMvc
+class TypeaheadIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private TypeaheadIndex typeaheadIndex;
+
+    @Test
+    void signedUpStudentIsFoundUntilDeleted() throws Exception {
+        String username = "typeahead" + UUID.randomUUID().toString().substring(0, 8);
+        mockMvc.perform(post("/register").param("username", username).param("password", "secret")
+                        .param("role", "STUDENT").with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(get("/students/typeahead").param("q", username.toUpperCase()).with(user("t").roles("TEACHER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].kind").value("STUDENT"))
+                .andExpect(jsonPath("$[0].username").value(username));
+
+        User user = userRepository.findByUsername(username);
+        Student student = studentRepository.findByUser(user);
+
+        // Renamed: found by the new name, not the old one
+        mockMvc.perform(post("/students/" + student.getId()).param("name", "Zebulon " + username)
+                        .param("email", "z@school.edu").param("departmentId", "0")
+                        .with(user(username).roles("STUDENT")).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/students/typeahead").param("q", "zebulon " + username).with(user("t").roles("TEACHER")))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        mockMvc.perform(get("/students/delete/" + student.getId()).with(user("t").roles("TEACHER")))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/students/typeahead").param("q", username).with(user("t").roles("TEACHER")))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void refreshPicksUpWritesMadeElsewhere() throws Exception {
+        String username = "elsewhere" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setRole("ROLE_STUDENT");
+        Student student = new Student();
+        student.setName("Quentin " + username);
+        student.setUser(user);
+        student = studentRepository.save(student);
+
+        mockMvc.perform(get("/students/typeahead").param("q", username).with(user("t").roles("TEACHER")))
+                .andExpect(jsonPath("$", hasSize(0)));
+        typeaheadIndex.refresh();
+        mockMvc.perform(get("/students/typeahead").param("q", username).with(user("t").roles("TEACHER")))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Quentin " + username));
+
+        studentRepository.delete(student);
+        typeaheadIndex.refresh();
+        mockMvc.perform(get("/students/typeahead").param("q", username).with(user("t").roles("TEACHER")))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void studentsCannotUseIt() throws Exception {
+        mockMvc.perform(get("/students/typeahead").param("q", "a").with(user("s").roles("STUDENT")))
+                .andExpect(status().isForbidden());
+    }
+}
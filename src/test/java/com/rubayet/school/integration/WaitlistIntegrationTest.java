@@ -0,0 +1,97 @@
+package com.rubayet.school.integration;
+
+import com.rubayet.school.model.Course;
+import com.rubayet.school.model.Student;
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.CourseRepository;
+import com.rubayet.school.repository.StudentRepository;
+import com.rubayet.school.service.EnrollmentResult;
+import com.rubayet.school.service.EnrollmentService;
+import com.rubayet.school.service.WaitlistService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+
+// A full course hands its freed seats to the waitlist, oldest first, and keeps them from direct enrolls.
+@SpringBootTest
+@AutoConfigureMockMvc
+class WaitlistIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private EnrollmentService enrollmentService;
+    @Autowired private WaitlistService waitlistService;
+
+    @Test
+    void freedSeatGoesToTheNextStudentInLine() throws Exception {
+        String prefix = "waitlist-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Course course = new Course();
+        course.setTitle(prefix + "course");
+        course.setCapacity(1);
+        Long courseId = courseRepository.save(course).getId();
+        Student holder = student(prefix + "holder");
+        Student first = student(prefix + "first");
+        Student second = student(prefix + "second");
+        Student latecomer = student(prefix + "latecomer");
+
+        assertEquals(EnrollmentResult.ENROLLED, enrollmentService.enroll(username(holder), courseId));
+        mockMvc.perform(post("/courses/" + courseId + "/enroll").with(user(username(first)).roles("STUDENT")).with(csrf()))
+                .andExpect(flash().attribute("waitlistOffer", courseId));
+        mockMvc.perform(post("/courses/" + courseId + "/waitlist").with(user(username(first)).roles("STUDENT")).with(csrf()))
+                .andExpect(flash().attribute("message", "You are #1 on the waitlist. You will be enrolled when a seat frees up."));
+        assertEquals(2, waitlistService.join(username(second), courseId));
+        assertEquals(2, waitlistService.join(username(second), courseId)); // joining twice keeps the place
+
+        mockMvc.perform(post("/courses/" + courseId + "/unenroll").with(user(username(holder)).roles("STUDENT")).with(csrf()));
+
+        // The seat is kept for the waitlist, even before the promoter has run
+        assertEquals(EnrollmentResult.FULL, enrollmentService.enroll(username(latecomer), courseId));
+
+        awaitEnrolled(first, courseId);
+        assertEquals(Map.of(courseId, 1), waitlistService.statusOf(second.getId()).waitlistPositions());
+        assertFalse(waitlistService.statusOf(latecomer.getId()).enrolledCourseIds().contains(courseId));
+
+        // Leaving the line hands the next seat to nobody in particular again
+        assertTrue(waitlistService.leave(username(second), courseId));
+        enrollmentService.unenroll(username(first), courseId);
+        assertEquals(EnrollmentResult.ENROLLED, enrollmentService.enroll(username(latecomer), courseId));
+    }
+
+    // Promotion runs on the promoter's thread (school.waitlist.interval)
+    private void awaitEnrolled(Student student, Long courseId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!waitlistService.statusOf(student.getId()).enrolledCourseIds().contains(courseId)) {
+            assertTrue(System.currentTimeMillis() < deadline, "not promoted in time");
+            Thread.sleep(50);
+        }
+        assertTrue(waitlistService.statusOf(student.getId()).waitlistPositions().isEmpty());
+    }
+
+    private static String username(Student student) {
+        return student.getUser().getUsername();
+    }
+
+    private Student student(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setRole("ROLE_STUDENT");
+        Student student = new Student();
+        student.setName(username);
+        student.setEmail(username + "@school.edu");
+        student.setUser(user);
+        return studentRepository.save(student);
+    }
+}
@@ -0,0 +1,114 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.DepartmentOption;
+import com.rubayet.school.dto.ImportReport;
+import com.rubayet.school.repository.DepartmentRepository;
+import com.rubayet.school.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkImportServiceTest {
+
+    @Mock
+    private DepartmentRepository departmentRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TypeaheadIndex typeaheadIndex;
+
+    @InjectMocks
+    private BulkImportService bulkImportService;
+
+    private static InputStream csv(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void parseLineSplitsOnCommas() {
+        assertEquals(List.of("nabil", "secret", "STUDENT", "", "", "CSE"),
+                BulkImportService.parseLine("nabil, secret ,STUDENT,,,CSE"));
+    }
+
+    @Test
+    void parseLineHandlesQuotes() {
+        assertEquals(List.of("rubayet", "Rubayet, Nabil", "say \"hi\""),
+                BulkImportService.parseLine("rubayet,\"Rubayet, Nabil\",\"say \"\"hi\"\"\""));
+    }
+
+    @Test
+    void invalidRowsAreReportedWithTheirLineNumber() throws IOException {
+        when(departmentRepository.findAllOptions()).thenReturn(List.of(new DepartmentOption(1L, "CSE")));
+
+        List<ImportReport.RowError> errors = new ArrayList<>();
+        List<BulkImportService.Row> rows = bulkImportService.readRows(csv(
+                BulkImportService.HEADER,
+                "nabil,secret,STUDENT,Nabil,nabil@mail.com,cse",
+                ",secret,STUDENT,,,",
+                "john,,TEACHER,,,",
+                "jane,secret,PRINCIPAL,,,",
+                "nabil,secret,STUDENT,,,",
+                "mary,secret,TEACHER,,,EEE",
+                "omar," + "x".repeat(BulkImportService.MAX_PASSWORD_BYTES + 1) + ",STUDENT,,,"), errors);
+
+        assertEquals(1, rows.size());
+        assertEquals(1L, rows.get(0).departmentId);
+        assertEquals("ROLE_STUDENT", rows.get(0).role);
+        assertEquals(List.of(3, 4, 5, 6, 7, 8), errors.stream().map(ImportReport.RowError::line).toList());
+    }
+
+    @Test
+    void missingHeaderIsRejected() throws IOException {
+
+        List<ImportReport.RowError> errors = new ArrayList<>();
+        List<BulkImportService.Row> rows = bulkImportService.readRows(csv("nabil,secret,STUDENT,,,"), errors);
+
+        assertTrue(rows.isEmpty());
+        assertEquals(1, errors.size());
+    }
+
+    @Test
+    void aPasswordThatCantBeHashedOnlyFailsItsRow() throws IOException {
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0).equals("broken")) {
+                throw new IllegalArgumentException("password cannot be hashed");
+            }
+            return "{bcrypt}hash";
+        });
+
+        ImportReport report = bulkImportService.importCsv(csv(
+                BulkImportService.HEADER,
+                "nabil,secret,STUDENT,,,",
+                "john,broken,TEACHER,,,"));
+
+        assertEquals(2, report.totalRows());
+        assertEquals(1, report.imported());
+        assertEquals(1, report.errors().size());
+        assertEquals(3, report.errors().getFirst().line());
+        assertEquals("Could not hash the password: password cannot be hashed", report.errors().getFirst().message());
+    }
+}
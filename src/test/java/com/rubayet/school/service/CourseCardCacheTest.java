@@ -0,0 +1,95 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.CourseSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CourseCardCacheTest {
+
+    // The real course_card.html from src/main/resources/templates
+    @Spy
+    private SpringTemplateEngine templateEngine = newTemplateEngine();
+
+    @InjectMocks
+    private CourseCardCache courseCardCache;
+
+    private static SpringTemplateEngine newTemplateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    private static CourseSummary course(int enrolled, long version) {
+        return new CourseSummary(7L, "Algebra", "Groups & rings", "Dr. Rahman", enrolled, 30, version);
+    }
+
+    private void verifyRendered(int times) {
+        verify(templateEngine, times(times)).process(eq(CourseCardCache.TEMPLATE), any(IContext.class));
+    }
+
+    @Test
+    void sameVersionIsRenderedOnce() {
+        String first = courseCardCache.render(course(3, 1L));
+        String second = courseCardCache.render(course(3, 1L));
+
+        assertSame(first, second);
+        assertTrue(first.contains("Instructor: Dr. Rahman"), first);
+        assertTrue(first.contains("3 / 30 seats taken"), first);
+        verifyRendered(1);
+    }
+
+    @Test
+    void newVersionIsRenderedAgain() {
+        courseCardCache.render(course(3, 1L));
+
+        // Someone enrolled (on this instance or another): the row comes back with a higher version
+        String html = courseCardCache.render(course(4, 2L));
+
+        assertTrue(html.contains("4 / 30 seats taken"), html);
+        verifyRendered(2);
+    }
+
+    @Test
+    void evictForcesRender() {
+        courseCardCache.render(course(3, 1L));
+
+        courseCardCache.evict(7L);
+        courseCardCache.render(course(3, 1L));
+
+        verifyRendered(2);
+    }
+
+    @Test
+    void textIsEscapedWhenRendered() {
+        CourseSummary course = new CourseSummary(8L, "<script>alert(1)</script>", null, null, 0, null, 0L);
+
+        Map<Long, String> cards = courseCardCache.render(List.of(course));
+
+        String html = cards.get(8L);
+        assertFalse(html.contains("<script>"), html);
+        assertTrue(html.contains("&lt;script&gt;"), html);
+        assertTrue(html.contains("Instructor: Unknown"), html);
+        assertTrue(html.contains("0 enrolled"), html);
+        // Thymeleaf comments are not sent
+        assertFalse(html.contains("CourseCardCache"), html);
+    }
+}
@@ -0,0 +1,130 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.config.DatabasePlatform;
+import com.rubayet.school.dto.CourseSearchPage;
+import com.rubayet.school.dto.CourseSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CourseSearchServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DatabasePlatform databasePlatform;
+
+    @InjectMocks
+    private CourseSearchService courseSearchService;
+
+    private static List<CourseSummary> courses(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> new CourseSummary(id, "Course " + id, null, null, 0, null, 0L))
+                .toList();
+    }
+
+    private static RowMapper<CourseSummary> anyMapper() {
+        return any();
+    }
+
+    @Test
+    void fullTextMatchesAreReturnedAsIs() {
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(jdbcTemplate.query(eq(CourseSearchService.FULL_TEXT_SQL), anyMapper(), eq("algebra"), eq("algebra"), eq(21), eq(0)))
+                .thenReturn(courses(3));
+
+        CourseSearchPage page = courseSearchService.search("  algebra ", 0, false);
+
+        assertEquals("algebra", page.query());
+        assertEquals(3, page.courses().size());
+        assertFalse(page.fuzzy());
+        assertFalse(page.hasNext());
+        verify(jdbcTemplate, never()).query(eq(CourseSearchService.TRIGRAM_SQL), anyMapper(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void noFullTextMatchFallsBackToTrigrams() {
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(jdbcTemplate.query(eq(CourseSearchService.FULL_TEXT_SQL), anyMapper(), eq("algebr"), eq("algebr"), eq(21), eq(0)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.query(eq(CourseSearchService.TRIGRAM_SQL), anyMapper(),
+                eq("algebr"), eq("algebr"), eq("algebr"), eq("algebr"), eq(21), eq(0)))
+                .thenReturn(courses(1));
+
+        CourseSearchPage page = courseSearchService.search("algebr", 0, false);
+
+        assertTrue(page.fuzzy());
+        assertEquals(1, page.courses().size());
+    }
+
+    @Test
+    void fuzzyPagesGoStraightToTrigrams() {
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(jdbcTemplate.query(eq(CourseSearchService.TRIGRAM_SQL), anyMapper(),
+                eq("calculs"), eq("calculs"), eq("calculs"), eq("calculs"), eq(21), eq(20)))
+                .thenReturn(courses(5));
+
+        CourseSearchPage page = courseSearchService.search("calculs", 1, true);
+
+        assertTrue(page.fuzzy());
+        assertTrue(page.hasPrevious());
+        verify(jdbcTemplate, never()).query(eq(CourseSearchService.FULL_TEXT_SQL), anyMapper(), any(), any(), any(), any());
+    }
+
+    @Test
+    void extraRowMeansThereIsANextPage() {
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(jdbcTemplate.query(eq(CourseSearchService.FULL_TEXT_SQL), anyMapper(), eq("math"), eq("math"), eq(21), eq(0)))
+                .thenReturn(courses(CourseSearchService.PAGE_SIZE + 1));
+
+        CourseSearchPage page = courseSearchService.search("math", 0, false);
+
+        assertTrue(page.hasNext());
+        assertEquals(CourseSearchService.PAGE_SIZE, page.courses().size());
+    }
+
+    @Test
+    void otherDatabasesUseAnEscapedLike() {
+        when(databasePlatform.isPostgres()).thenReturn(false);
+        when(jdbcTemplate.query(eq(CourseSearchService.LIKE_SQL), anyMapper(),
+                eq("%100\\%\\_done%"), eq("%100\\%\\_done%"), eq("%100\\%\\_done%"), eq(21), eq(0)))
+                .thenReturn(courses(2));
+
+        CourseSearchPage page = courseSearchService.search("100%_Done", 0, true);
+
+        assertFalse(page.fuzzy());
+        assertEquals(2, page.courses().size());
+    }
+
+    @Test
+    void pageAndQueryLengthAreClamped() {
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        String longQuery = "a".repeat(500);
+        String clamped = "a".repeat(CourseSearchService.MAX_QUERY_LENGTH);
+        int lastOffset = CourseSearchService.MAX_PAGE * CourseSearchService.PAGE_SIZE;
+        when(jdbcTemplate.query(eq(CourseSearchService.TRIGRAM_SQL), anyMapper(),
+                eq(clamped), eq(clamped), eq(clamped), eq(clamped), eq(21), eq(lastOffset)))
+                .thenReturn(List.of());
+
+        CourseSearchPage page = courseSearchService.search(longQuery, 10_000, true);
+
+        assertEquals(CourseSearchService.MAX_PAGE, page.page());
+        assertEquals(clamped, page.query());
+    }
+}
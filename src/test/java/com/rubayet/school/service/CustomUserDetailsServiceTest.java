@@ -0,0 +1,45 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.model.User;
+import com.rubayet.school.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+// Logins check the hash that is in the database right now, not one cached earlier.
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private CustomUserDetailsService customUserDetailsService;
+
+    private static User user(String password) {
+        User user = new User();
+        user.setUsername("nabil");
+        user.setPassword(password);
+        user.setRole("ROLE_STUDENT");
+        return user;
+    }
+
+    @Test
+    void passwordChangedElsewhereIsUsedAtTheNextLogin() {
+        when(userRepository.findByUsername("nabil")).thenReturn(user("{bcrypt}old"), user("{bcrypt}new"));
+
+        assertEquals("{bcrypt}old", customUserDetailsService.loadUserByUsername("nabil").getPassword());
+        assertEquals("{bcrypt}new", customUserDetailsService.loadUserByUsername("nabil").getPassword());
+    }
+
+    @Test
+    void unknownUserIsRejected() {
+        assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadUserByUsername("ghost"));
+    }
+}
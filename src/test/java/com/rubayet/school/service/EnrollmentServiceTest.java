@@ -0,0 +1,201 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.SeatSnapshot;
+import com.rubayet.school.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EnrollmentServiceTest {
+
+    private static final long COURSE_ID = 1L;
+    private static final int CAPACITY = 30;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Spy
+    private SeatCounters seatCounters = new SeatCounters();
+
+    @Spy
+    private TransactionTemplate transactionTemplate = newTransactionTemplate();
+
+    @Mock
+    private CourseCardCache courseCardCache;
+
+    @Mock
+    private RecentWriters recentWriters;
+
+    @Mock
+    private TimetableIndex timetableIndex;
+
+    @Mock
+    private WaitlistPromoter waitlistPromoter;
+
+    @InjectMocks
+    private EnrollmentService enrollmentService;
+
+    // A tiny stand-in for the database: the join table and the seats_taken column of one course
+    private final Set<String> enrolled = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger seatsTaken = new AtomicInteger();
+    private final AtomicInteger claimAttempts = new AtomicInteger();
+
+    private static TransactionTemplate newTransactionTemplate() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        return new TransactionTemplate(transactionManager);
+    }
+
+    @BeforeEach
+    void fakeDatabase() {
+        // No meeting times: nothing ever conflicts
+        lenient().when(timetableIndex.reserve(anyString(), eq(COURSE_ID)))
+                .thenAnswer(invocation -> new TimetableIndex.Reservation(invocation.getArgument(0), COURSE_ID, false, null));
+        lenient().when(courseRepository.findSeatSnapshot(COURSE_ID))
+                .thenAnswer(invocation -> new SeatSnapshot(CAPACITY, seatsTaken.get()));
+        lenient().when(courseRepository.insertEnrollment(anyString(), eq(COURSE_ID)))
+                .thenAnswer(invocation -> enrolled.add(invocation.getArgument(0)) ? 1 : 0);
+        lenient().when(courseRepository.findTimetableConflict(anyString(), eq(COURSE_ID))).thenReturn(null);
+        // Same semantics as "UPDATE ... WHERE seats_taken < capacity": check and increment are atomic
+        lenient().when(courseRepository.claimSeat(COURSE_ID)).thenAnswer(invocation -> {
+            claimAttempts.incrementAndGet();
+            return seatsTaken.getAndUpdate(taken -> taken < CAPACITY ? taken + 1 : taken) < CAPACITY ? 1 : 0;
+        });
+        lenient().when(courseRepository.deleteEnrollment(anyString(), eq(COURSE_ID)))
+                .thenAnswer(invocation -> enrolled.remove(invocation.getArgument(0)) ? 1 : 0);
+        lenient().when(courseRepository.releaseSeat(COURSE_ID))
+                .thenAnswer(invocation -> seatsTaken.getAndUpdate(taken -> taken > 0 ? taken - 1 : taken) > 0 ? 1 : 0);
+    }
+
+    @Test
+    void enrollTwiceIsANoOp() {
+        assertEquals(EnrollmentResult.ENROLLED, enrollmentService.enroll("nabil", COURSE_ID));
+        assertEquals(EnrollmentResult.ALREADY_ENROLLED, enrollmentService.enroll("nabil", COURSE_ID));
+        assertEquals(1, seatsTaken.get());
+        verify(recentWriters).wrote("nabil"); // only the enrollment that changed something
+    }
+
+    @Test
+    void unenrollGivesTheSeatBack() {
+        enrollmentService.enroll("nabil", COURSE_ID);
+
+        assertTrue(enrollmentService.unenroll("nabil", COURSE_ID));
+        assertFalse(enrollmentService.unenroll("nabil", COURSE_ID));
+        assertEquals(0, seatsTaken.get());
+        verify(waitlistPromoter).seatMayBeFree(COURSE_ID); // once: the second call freed nothing
+    }
+
+    @Test
+    void fullCourseIsRejectedWithoutAWrite() {
+        seatsTaken.set(CAPACITY);
+
+        assertEquals(EnrollmentResult.FULL, enrollmentService.enroll("nabil", COURSE_ID));
+        verify(courseRepository, never()).insertEnrollment(anyString(), eq(COURSE_ID));
+        verify(courseRepository, never()).claimSeat(COURSE_ID);
+    }
+
+    @Test
+    void missingCourseIsNotFoundRatherThanFull() {
+        when(timetableIndex.reserve("nabil", 99L)).thenReturn(new TimetableIndex.Reservation("nabil", 99L, false, null));
+
+        assertEquals(EnrollmentResult.NOT_FOUND, enrollmentService.enroll("nabil", 99L));
+        verify(courseRepository, never()).insertEnrollment("nabil", 99L);
+    }
+
+    @Test
+    void timetableConflictIsRejectedWithoutAWrite() {
+        when(timetableIndex.reserve("nabil", COURSE_ID))
+                .thenReturn(new TimetableIndex.Reservation("nabil", COURSE_ID, false, 2L));
+
+        assertEquals(EnrollmentResult.CONFLICT, enrollmentService.enroll("nabil", COURSE_ID));
+        verify(courseRepository, never()).insertEnrollment(anyString(), eq(COURSE_ID));
+        assertEquals(0, seatsTaken.get());
+    }
+
+    @Test
+    void fullCourseGivesTheTimetableSlotsBack() {
+        seatsTaken.set(CAPACITY);
+        TimetableIndex.Reservation reservation = new TimetableIndex.Reservation("nabil", COURSE_ID, true, null);
+        when(timetableIndex.reserve("nabil", COURSE_ID)).thenReturn(reservation);
+
+        assertEquals(EnrollmentResult.FULL, enrollmentService.enroll("nabil", COURSE_ID));
+        verify(timetableIndex).cancel(reservation);
+    }
+
+    @Test
+    void clashMissedByTheInMemoryTimetableIsCaughtInTheTransaction() {
+        // Enrolled in course 2 through another instance: this instance's timetable doesn't know
+        TimetableIndex.Reservation reservation = new TimetableIndex.Reservation("nabil", COURSE_ID, true, null);
+        when(timetableIndex.reserve("nabil", COURSE_ID)).thenReturn(reservation);
+        when(courseRepository.findTimetableConflict("nabil", COURSE_ID)).thenReturn(2L);
+
+        assertEquals(EnrollmentResult.CONFLICT, enrollmentService.enroll("nabil", COURSE_ID));
+        verify(courseRepository, never()).claimSeat(COURSE_ID);
+        verify(timetableIndex).cancel(reservation);
+        verify(timetableIndex).evictStudent("nabil");
+        verify(recentWriters, never()).wrote("nabil");
+    }
+
+    @Test
+    void concurrentEnrollmentsNeverOverbook() throws Exception {
+        int students = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<EnrollmentResult>> futures = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            String username = "student" + i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                return enrollmentService.enroll(username, COURSE_ID);
+            }));
+        }
+        start.countDown();
+
+        int admitted = 0;
+        int full = 0;
+        for (Future<EnrollmentResult> future : futures) {
+            EnrollmentResult result = future.get(30, TimeUnit.SECONDS);
+            if (result == EnrollmentResult.ENROLLED) {
+                admitted++;
+            } else if (result == EnrollmentResult.FULL) {
+                full++;
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(CAPACITY, admitted);
+        assertEquals(students - CAPACITY, full);
+        assertEquals(CAPACITY, seatsTaken.get());
+        // The in-memory gate kept the losers away from the course row
+        assertEquals(CAPACITY, claimAttempts.get());
+    }
+}
@@ -0,0 +1,41 @@
+package com.rubayet.school.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportServiceTest {
+
+    @Test
+    void plainFieldsAreWrittenAsIs() {
+        assertEquals("Rubayet Nabil", ExportService.csvField("Rubayet Nabil"));
+        assertEquals("42", ExportService.csvField(42L));
+        assertEquals("", ExportService.csvField(null));
+    }
+
+    @Test
+    void fieldsWithCommasQuotesOrNewlinesAreQuoted() {
+        assertEquals("\"Nabil, Rubayet\"", ExportService.csvField("Nabil, Rubayet"));
+        assertEquals("\"say \"\"hi\"\"\"", ExportService.csvField("say \"hi\""));
+        assertEquals("\"two\nlines\"", ExportService.csvField("two\nlines"));
+    }
+
+    @Test
+    void formulasAreDefused() {
+        assertEquals("'=1+1", ExportService.csvField("=1+1"));
+        assertEquals("\"'=HYPERLINK(\"\"x\"\")\"", ExportService.csvField("=HYPERLINK(\"x\")"));
+        assertEquals("'+1", ExportService.csvField("+1"));
+        assertEquals("'@sum", ExportService.csvField("@sum"));
+        assertEquals("-1", ExportService.csvField(-1));   // numbers are data, not formulas
+    }
+
+    @Test
+    void linesEndWithCrLf() throws IOException {
+        StringWriter out = new StringWriter();
+        ExportService.writeCsvLine(out, new Object[]{1L, "a,b", null});
+        assertEquals("1,\"a,b\",\r\n", out.toString());
+    }
+}
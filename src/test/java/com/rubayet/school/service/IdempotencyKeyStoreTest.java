@@ -0,0 +1,88 @@
+package com.rubayet.school.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyKeyStoreTest {
+
+    // A clock we can move forward by hand
+    private static class MutableClock extends Clock {
+        private long millis;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    @Test
+    void firstUseOnlyOnce() {
+        IdempotencyKeyStore store = new IdempotencyKeyStore(new MutableClock());
+
+        assertTrue(store.firstUse("nabil:abc"));
+        assertFalse(store.firstUse("nabil:abc"));
+        assertTrue(store.firstUse("nabil:xyz"));
+    }
+
+    @Test
+    void keyCanBeReusedAfterItExpires() {
+        MutableClock clock = new MutableClock();
+        IdempotencyKeyStore store = new IdempotencyKeyStore(clock);
+
+        assertTrue(store.firstUse("nabil:abc"));
+        clock.millis += IdempotencyKeyStore.TTL.toMillis() + 1;
+        assertTrue(store.firstUse("nabil:abc"));
+    }
+
+    @Test
+    void forgottenKeyCanBeUsedAgain() {
+        IdempotencyKeyStore store = new IdempotencyKeyStore(new MutableClock());
+
+        assertTrue(store.firstUse("nabil:abc"));
+        store.forget("nabil:abc");
+        assertTrue(store.firstUse("nabil:abc"));
+        assertFalse(store.firstUse("nabil:abc"));
+    }
+
+    @Test
+    void staysBounded() {
+        IdempotencyKeyStore store = new IdempotencyKeyStore(new MutableClock());
+
+        for (int i = 0; i <= IdempotencyKeyStore.MAX_KEYS; i++) {
+            store.firstUse("key" + i);
+        }
+
+        assertTrue(store.size() <= IdempotencyKeyStore.MAX_KEYS);
+    }
+
+    @Test
+    void keyJustUsedSurvivesAFullStore() {
+        IdempotencyKeyStore store = new IdempotencyKeyStore(new MutableClock());
+        for (int i = 0; i < IdempotencyKeyStore.MAX_KEYS; i++) {
+            store.firstUse("key" + i);
+        }
+
+        assertTrue(store.firstUse("nabil:abc"));
+        store.firstUse("one-more");
+
+        // The store made room by evicting, not by forgetting everything
+        assertFalse(store.firstUse("nabil:abc"));
+        assertFalse(store.firstUse("key" + (IdempotencyKeyStore.MAX_KEYS - 1)));
+    }
+}
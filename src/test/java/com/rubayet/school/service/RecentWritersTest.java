@@ -0,0 +1,102 @@
+package com.rubayet.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentWritersTest {
+
+    // A clock we can move forward by hand
+    private static class MutableClock extends Clock {
+        private long millis;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    // The user's session, as the shared session store hands it to whichever instance serves the request
+    private final MockHttpSession session = new MockHttpSession();
+
+    @BeforeEach
+    void logIn() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("nabil", "secret"));
+        newRequest();
+    }
+
+    @AfterEach
+    void clearContext() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    private void newRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @Test
+    void writerReadsFromThePrimaryOnTheNextRequestsForTheWindow() {
+        MutableClock clock = new MutableClock();
+        RecentWriters recentWriters = new RecentWriters(clock, Duration.ofSeconds(10));
+
+        assertFalse(recentWriters.recentlyWrote());
+        recentWriters.wrote("nabil");
+
+        newRequest(); // the redirect, possibly on another instance: only the session is shared
+        assertTrue(recentWriters.recentlyWrote());
+
+        clock.millis += 10_001;
+        assertFalse(recentWriters.recentlyWrote());
+        assertNull(session.getAttribute(RecentWriters.PRIMARY_UNTIL));
+    }
+
+    @Test
+    void writesForSomeoneElseDontCount() {
+        RecentWriters recentWriters = new RecentWriters(new MutableClock(), Duration.ofSeconds(10));
+
+        recentWriters.wrote("rubayet");
+        assertFalse(recentWriters.recentlyWrote());
+
+        // Outside a request (the waitlist promoter's thread) there is no session to mark
+        RequestContextHolder.resetRequestAttributes();
+        recentWriters.wrote("nabil");
+        assertFalse(recentWriters.recentlyWrote());
+    }
+
+    @Test
+    void disabledWithoutReplicas() {
+        RecentWriters recentWriters = new RecentWriters(); // school.datasource.replica.enabled not set
+
+        recentWriters.wrote("nabil");
+
+        assertFalse(recentWriters.recentlyWrote());
+        assertNull(session.getAttribute(RecentWriters.PRIMARY_UNTIL));
+    }
+}
@@ -0,0 +1,136 @@
+package com.rubayet.school.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatCountersTest {
+
+    @Test
+    void acquiresUntilNoSeatsLeft() {
+        SeatCounters counters = new SeatCounters();
+
+        assertEquals(SeatCounters.Admission.ADMITTED, counters.tryAcquire(1L, () -> 2));
+        assertEquals(SeatCounters.Admission.ADMITTED, counters.tryAcquire(1L, () -> 2));
+        assertEquals(SeatCounters.Admission.FULL, counters.tryAcquire(1L, () -> 2));
+
+        counters.release(1L);
+        assertEquals(SeatCounters.Admission.ADMITTED, counters.tryAcquire(1L, () -> 2));
+    }
+
+    @Test
+    void markFullRejectsEveryone() {
+        SeatCounters counters = new SeatCounters();
+        counters.tryAcquire(1L, () -> 10);
+
+        counters.markFull(1L);
+
+        assertEquals(SeatCounters.Admission.FULL, counters.tryAcquire(1L, () -> 10));
+    }
+
+    @Test
+    void unlimitedCourseNeverRunsOut() {
+        SeatCounters counters = new SeatCounters();
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(SeatCounters.Admission.ADMITTED, counters.tryAcquire(1L, () -> Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void loadsEachCourseOnce() {
+        SeatCounters counters = new SeatCounters();
+        AtomicInteger loads = new AtomicInteger();
+
+        counters.tryAcquire(1L, () -> { loads.incrementAndGet(); return 5; });
+        counters.tryAcquire(1L, () -> { loads.incrementAndGet(); return 5; });
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void missingCourseIsNotFoundAndNotRemembered() {
+        SeatCounters counters = new SeatCounters();
+
+        assertEquals(SeatCounters.Admission.NO_SUCH_COURSE, counters.tryAcquire(1L, () -> SeatCounters.NO_SUCH_COURSE));
+        // Created since: loaded again, not answered from memory
+        assertEquals(SeatCounters.Admission.ADMITTED, counters.tryAcquire(1L, () -> 5));
+    }
+
+    @Test
+    void slowLoadOnlyHoldsUpItsOwnCourse() throws Exception {
+        SeatCounters counters = new SeatCounters();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            Future<SeatCounters.Admission> first = pool.submit(() -> counters.tryAcquire(1L, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(finishLoad);
+                return 5;
+            }));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            Future<SeatCounters.Admission> second = pool.submit(() -> counters.tryAcquire(1L, () -> {
+                loads.incrementAndGet();
+                return 5;
+            }));
+
+            // Other courses are loaded meanwhile, even if they share a map bin with course 1
+            for (long courseId = 2; courseId < 100; courseId++) {
+                assertEquals(SeatCounters.Admission.ADMITTED, counters.tryAcquire(courseId, () -> 1));
+            }
+            assertFalse(second.isDone()); // waits for the first load instead of running its own
+
+            finishLoad.countDown();
+            assertEquals(SeatCounters.Admission.ADMITTED, first.get(10, TimeUnit.SECONDS));
+            assertEquals(SeatCounters.Admission.ADMITTED, second.get(10, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            finishLoad.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void concurrentAcquiresNeverExceedFreeSeats() throws InterruptedException {
+        SeatCounters counters = new SeatCounters();
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (counters.tryAcquire(1L, () -> 25) == SeatCounters.Admission.ADMITTED) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(25, admitted.get());
+    }
+}
@@ -0,0 +1,73 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.StudentPage;
+import com.rubayet.school.dto.StudentSort;
+import com.rubayet.school.dto.StudentSummary;
+import com.rubayet.school.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StudentDirectoryServiceTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @InjectMocks
+    private StudentDirectoryService studentDirectoryService;
+
+    private static List<StudentSummary> rows(int count) {
+        List<StudentSummary> rows = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            rows.add(new StudentSummary(i, "student" + i, "s" + i + "@mail.com", "CSE", "user" + i));
+        }
+        return rows;
+    }
+
+    @Test
+    void firstPageStartsFromTheBeginning() {
+        when(studentRepository.findSummariesAfterId(eq(null), eq(0L), any(Limit.class))).thenReturn(rows(3));
+
+        StudentPage page = studentDirectoryService.findPage(null, StudentSort.ID, null, null);
+
+        assertEquals(3, page.students().size());
+        assertFalse(page.hasNext());
+        verify(studentRepository).findSummariesAfterId(null, 0L, Limit.of(StudentDirectoryService.PAGE_SIZE + 1));
+    }
+
+    @Test
+    void extraRowMeansThereIsANextPage() {
+        when(studentRepository.findSummariesAfterId(eq(7L), eq(100L), any(Limit.class)))
+                .thenReturn(rows(StudentDirectoryService.PAGE_SIZE + 1));
+
+        StudentPage page = studentDirectoryService.findPage(7L, StudentSort.ID, 100L, null);
+
+        assertEquals(StudentDirectoryService.PAGE_SIZE, page.students().size());
+        assertTrue(page.hasNext());
+        assertEquals(StudentDirectoryService.PAGE_SIZE, page.last().id());
+    }
+
+    @Test
+    void nameSortUsesNameCursor() {
+        when(studentRepository.findSummariesAfterName(eq(null), eq("nabil"), eq(5L), any(Limit.class)))
+                .thenReturn(rows(1));
+
+        StudentPage page = studentDirectoryService.findPage(null, StudentSort.NAME, 5L, "nabil");
+
+        assertEquals(1, page.students().size());
+        assertNull(page.last());
+    }
+}
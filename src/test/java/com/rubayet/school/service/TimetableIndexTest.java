@@ -0,0 +1,149 @@
+package com.rubayet.school.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimetableIndexTest {
+
+    private static final long MATH = 1L;     // Monday 09:00-10:30
+    private static final long PHYSICS = 2L;  // Monday 10:00-11:00 (overlaps MATH)
+    private static final long ART = 3L;      // Monday 10:30-12:00 (right after MATH)
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private TimetableIndex timetableIndex;
+
+    // course_meetings rows: course id, day, start, end
+    private final List<Object[]> meetings = List.of(
+            new Object[]{MATH, "MONDAY", "09:00", "10:30"},
+            new Object[]{PHYSICS, "MONDAY", "10:00", "11:00"},
+            new Object[]{ART, "MONDAY", "10:30", "12:00"});
+
+    // course ids the student is already enrolled in, in the database
+    private final List<Long> enrolled = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void fakeDatabase() {
+        // The student's schedule + the target course (username, courseId)
+        lenient().when(jdbcTemplate.query(contains("student_courses"), any(RowMapper.class), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    long target = invocation.getArgument(3);
+                    List<Object> rows = new ArrayList<>();
+                    for (Object[] meeting : meetings) {
+                        boolean isEnrolled = enrolled.contains((Long) meeting[0]);
+                        if (isEnrolled || (Long) meeting[0] == target) {
+                            rows.add(map(invocation.getArgument(1), meeting, isEnrolled));
+                        }
+                    }
+                    return rows;
+                });
+        // One course's slots
+        lenient().when(jdbcTemplate.query(eq(TimetableIndex.COURSE_SLOTS), any(RowMapper.class), any(Object.class)))
+                .thenAnswer(invocation -> {
+                    long courseId = invocation.getArgument(2);
+                    List<Object> rows = new ArrayList<>();
+                    for (Object[] meeting : meetings) {
+                        if ((Long) meeting[0] == courseId) {
+                            rows.add(map(invocation.getArgument(1), meeting, false));
+                        }
+                    }
+                    return rows;
+                });
+    }
+
+    private static Object map(RowMapper<?> mapper, Object[] meeting, boolean isEnrolled) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("course_id")).thenReturn((Long) meeting[0]);
+        when(rs.getString("day_of_week")).thenReturn((String) meeting[1]);
+        when(rs.getObject("start_time", LocalTime.class)).thenReturn(LocalTime.parse((String) meeting[2]));
+        when(rs.getObject("end_time", LocalTime.class)).thenReturn(LocalTime.parse((String) meeting[3]));
+        when(rs.getBoolean("enrolled")).thenReturn(isEnrolled);
+        return mapper.mapRow(rs, 0);
+    }
+
+    @Test
+    void overlappingCourseIsAConflict() {
+        assertTrue(timetableIndex.reserve("nabil", MATH).added());
+
+        TimetableIndex.Reservation physics = timetableIndex.reserve("nabil", PHYSICS);
+
+        assertTrue(physics.isConflict());
+        assertEquals(MATH, physics.conflictingCourseId());
+        assertFalse(timetableIndex.reserve("nabil", ART).isConflict()); // starts when MATH ends
+    }
+
+    @Test
+    void scheduleIsLoadedOnceThenKeptInMemory() {
+        enrolled.add(MATH);
+
+        assertTrue(timetableIndex.reserve("nabil", PHYSICS).isConflict()); // one query: schedule + PHYSICS
+        clearInvocations(jdbcTemplate);
+        timetableIndex.reserve("nabil", ART);                          // one query: ART's slots only
+        timetableIndex.reserve("nabil", PHYSICS);                      // nothing: both cached
+
+        verify(jdbcTemplate, never()).query(contains("student_courses"), any(RowMapper.class), anyString(), any());
+        verify(jdbcTemplate).query(eq(TimetableIndex.COURSE_SLOTS), any(RowMapper.class), eq(ART));
+    }
+
+    @Test
+    void unenrollOrCancelFreesTheSlots() {
+        TimetableIndex.Reservation math = timetableIndex.reserve("nabil", MATH);
+        timetableIndex.cancel(math);
+        assertFalse(timetableIndex.reserve("nabil", PHYSICS).isConflict());
+
+        timetableIndex.release("nabil", PHYSICS);
+        assertFalse(timetableIndex.reserve("nabil", MATH).isConflict());
+    }
+
+    @Test
+    void alreadyEnrolledCourseIsNotAddedTwice() {
+        enrolled.add(MATH);
+
+        TimetableIndex.Reservation again = timetableIndex.reserve("nabil", MATH);
+
+        assertFalse(again.isConflict());
+        assertFalse(again.added()); // so cancelling it (ALREADY_ENROLLED) would keep MATH in the schedule
+        timetableIndex.cancel(again);
+        assertTrue(timetableIndex.reserve("nabil", PHYSICS).isConflict());
+    }
+
+    @Test
+    void editedCourseIsReloaded() {
+        timetableIndex.reserve("nabil", MATH);
+        clearInvocations(jdbcTemplate);
+
+        timetableIndex.evictCourse(MATH);
+        timetableIndex.reserve("nabil", ART);
+
+        // the student's schedule contained MATH, so it is read again
+        verify(jdbcTemplate).query(contains("student_courses"), any(RowMapper.class), eq("nabil"), eq(ART));
+    }
+}
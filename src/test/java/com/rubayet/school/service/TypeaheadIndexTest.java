@@ -0,0 +1,89 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.TypeaheadMatch;
+import com.rubayet.school.dto.TypeaheadMatch.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeaheadIndexTest {
+
+    private final TypeaheadIndex index = new TypeaheadIndex();
+
+    private static TypeaheadMatch student(long id, String name, String username) {
+        return new TypeaheadMatch(Kind.STUDENT, id, name, username);
+    }
+
+    private List<Long> ids(String query) {
+        return index.lookup(query, TypeaheadIndex.MAX_RESULTS).stream().map(TypeaheadMatch::id).toList();
+    }
+
+    @Test
+    void normalizeLowercasesStripsAccentsAndSqueezesSpaces() {
+        assertEquals("jose alvarez", TypeaheadIndex.normalize("  José   ÁLVAREZ "));
+        assertEquals("", TypeaheadIndex.normalize(null));
+    }
+
+    @Test
+    void everyWordOfTheNameAndTheUsernameAreKeys() {
+        assertEquals(Set.of("rubayet nabil", "nabil", "rnabil"),
+                TypeaheadIndex.keysOf(student(1, "Rubayet Nabil", "rnabil")));
+    }
+
+    @Test
+    void findsByPrefixOfNameWordOrUsername() {
+        index.putAll(List.of(student(1, "Rubayet Nabil", "rnabil"), student(2, "Nadia Rahman", "nadia")));
+
+        assertEquals(List.of(1L), ids("rub"));
+        assertEquals(List.of(1L), ids("Rubayet N"));
+        assertEquals(List.of(1L, 2L), ids("na"));   // "nabil" sorts before "nadia"
+        assertEquals(List.of(2L), ids("RAHM"));
+        assertEquals(List.of(), ids("x"));
+        assertEquals(List.of(), ids("   "));
+    }
+
+    @Test
+    void aPersonMatchingSeveralKeysIsReturnedOnce() {
+        index.put(student(1, "Anna", "anna"));
+
+        assertEquals(List.of(1L), ids("ann"));
+    }
+
+    @Test
+    void updateReplacesTheOldKeys() {
+        index.put(student(1, "Old Name", "user1"));
+        index.put(student(1, "New Name", "user1"));
+
+        assertEquals(List.of(), ids("old"));
+        assertEquals(List.of(1L), ids("new"));
+        assertEquals(List.of(1L), ids("name"));
+        assertEquals(3, index.size());   // "new name", "name", "user1"
+    }
+
+    @Test
+    void removeDropsOnlyThatStudent() {
+        index.putAll(List.of(student(1, "Sam", "sam1"), student(2, "Sam", "sam2"),
+                new TypeaheadMatch(Kind.TEACHER, 1L, "Sam Teacher", "tsam")));
+
+        index.removeStudent(1L);
+
+        assertEquals(List.of(2L, 1L), ids("sam"));   // student 2, then the teacher
+        assertEquals(Kind.TEACHER, index.lookup("sam teacher", 5).get(0).kind());
+    }
+
+    @Test
+    void resultsAreAlphabeticalAndLimited() {
+        List<TypeaheadMatch> people = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            people.add(student(i, String.format("student %02d", 49 - i), null));
+        }
+        index.putAll(people);
+
+        List<TypeaheadMatch> matches = index.lookup("stu", 3);
+        assertEquals(List.of("student 00", "student 01", "student 02"), matches.stream().map(TypeaheadMatch::name).toList());
+    }
+}
@@ -0,0 +1,55 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.UserProfile;
+import com.rubayet.school.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserProfileServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserProfileService userProfileService;
+
+    private final UserProfile nabil = new UserProfile(1L, "nabil", "ROLE_STUDENT", 10L, null);
+
+    @Test
+    void secondLookupIsServedFromMemory() {
+        when(userRepository.findProfileByUsername("nabil")).thenReturn(nabil);
+
+        assertEquals(nabil, userProfileService.findByUsername("nabil"));
+        assertEquals(nabil, userProfileService.findByUsername("nabil"));
+
+        verify(userRepository, times(1)).findProfileByUsername("nabil");
+    }
+
+    @Test
+    void unknownUsersAreNotCached() {
+        assertNull(userProfileService.findByUsername("ghost"));
+        assertNull(userProfileService.findByUsername("ghost"));
+
+        verify(userRepository, times(2)).findProfileByUsername("ghost");
+    }
+
+    @Test
+    void evictStudentForcesReload() {
+        when(userRepository.findProfileByUsername("nabil")).thenReturn(nabil);
+        userProfileService.findByUsername("nabil");
+
+        userProfileService.evictStudent(10L);
+        userProfileService.findByUsername("nabil");
+
+        verify(userRepository, times(2)).findProfileByUsername("nabil");
+    }
+}
@@ -0,0 +1,174 @@
+package com.rubayet.school.service;
+
+import com.rubayet.school.dto.SeatSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistPromoterTest {
+
+    private static final long COURSE_ID = 7L;
+    private static final int BATCH_SIZE = 3;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = newTransactionTemplate();
+
+    @Mock
+    private TimetableIndex timetableIndex;
+
+    @Mock
+    private SeatCounters seatCounters;
+
+    @Mock
+    private CourseCardCache courseCardCache;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private WaitlistPromoter promoter = new WaitlistPromoter(BATCH_SIZE);
+
+    // A stand-in for the course row and its waitlist (oldest first)
+    private SeatSnapshot seats = new SeatSnapshot(30, 28);
+    private final List<WaitlistPromoter.Waiter> queue = new ArrayList<>(List.of(
+            new WaitlistPromoter.Waiter(11, 101, "first"),
+            new WaitlistPromoter.Waiter(12, 102, "second"),
+            new WaitlistPromoter.Waiter(13, 103, "third")));
+
+    private static TransactionTemplate newTransactionTemplate() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        return new TransactionTemplate(transactionManager);
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void fakeDatabase() {
+        promoter.registerMetrics();
+        lenient().when(jdbcTemplate.query(eq(WaitlistPromoter.LOCK_COURSE), any(RowMapper.class), eq(COURSE_ID)))
+                .thenAnswer(invocation -> List.of(seats));
+        lenient().when(jdbcTemplate.query(eq(WaitlistPromoter.NEXT_IN_LINE), any(RowMapper.class), eq(COURSE_ID), anyInt()))
+                .thenAnswer(invocation -> List.copyOf(queue.subList(0, Math.min(queue.size(), invocation.<Integer>getArgument(3)))));
+        // Everyone admitted gets in (nobody enrolled some other way meanwhile)
+        lenient().when(jdbcTemplate.query(eq(WaitlistPromoter.ENROLL), any(RowMapper.class), any(Long[].class), eq(COURSE_ID)))
+                .thenAnswer(invocation -> Arrays.asList(invocation.<Long[]>getArgument(2)));
+        lenient().when(timetableIndex.reserve(anyString(), eq(COURSE_ID)))
+                .thenAnswer(invocation -> new TimetableIndex.Reservation(invocation.getArgument(0), COURSE_ID, true, null));
+    }
+
+    @Test
+    void promotesTheOldestWaitersIntoTheFreeSeats() {
+        WaitlistPromoter.Batch batch = promoter.promote(COURSE_ID);
+
+        assertEquals(List.of("first", "second"), batch.promoted());
+        assertTrue(batch.more()); // took every free seat: look again, another may have been freed
+        verify(jdbcTemplate).update(WaitlistPromoter.DEQUEUE, COURSE_ID, 12L);
+        verify(jdbcTemplate).update(WaitlistPromoter.TAKE_SEATS, 2, COURSE_ID);
+        verify(seatCounters).evict(COURSE_ID);
+        verify(courseCardCache).evict(COURSE_ID);
+        assertEquals(2, meterRegistry.counter("school.waitlist.promoted").count());
+    }
+
+    @Test
+    void aFullCourseIsLeftAlone() {
+        seats = new SeatSnapshot(30, 30);
+
+        assertEquals(WaitlistPromoter.Batch.NONE, promoter.promote(COURSE_ID));
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(seatCounters, never()).evict(COURSE_ID);
+    }
+
+    @Test
+    void aWaiterWhoseTimetableClashesIsDroppedInsteadOfEnrolled() {
+        when(timetableIndex.reserve("first", COURSE_ID))
+                .thenReturn(new TimetableIndex.Reservation("first", COURSE_ID, false, 99L));
+
+        WaitlistPromoter.Batch batch = promoter.promote(COURSE_ID);
+
+        assertEquals(List.of("second"), batch.promoted());
+        verify(jdbcTemplate).update(WaitlistPromoter.DEQUEUE, COURSE_ID, 12L); // "first" leaves the queue too
+        verify(jdbcTemplate).update(WaitlistPromoter.TAKE_SEATS, 1, COURSE_ID);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void aClashOnlyTheDatabaseKnowsAboutDropsTheWaiterAndTheirStaleTimetable() {
+        // "first" took a clashing course on another instance: the insert skips them
+        when(jdbcTemplate.query(eq(WaitlistPromoter.ENROLL), any(RowMapper.class), any(Long[].class), eq(COURSE_ID)))
+                .thenReturn(List.of(102L));
+
+        WaitlistPromoter.Batch batch = promoter.promote(COURSE_ID);
+
+        assertEquals(List.of("second"), batch.promoted());
+        assertEquals(List.of("first"), batch.stale());
+        verify(jdbcTemplate).update(WaitlistPromoter.DEQUEUE, COURSE_ID, 12L);
+        verify(jdbcTemplate).update(WaitlistPromoter.TAKE_SEATS, 1, COURSE_ID);
+        verify(timetableIndex).evictStudent("first");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void aFailedTransactionGivesTheTimetableSlotsBack() {
+        when(jdbcTemplate.query(eq(WaitlistPromoter.ENROLL), any(RowMapper.class), any(Long[].class), eq(COURSE_ID)))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> promoter.promote(COURSE_ID));
+        verify(timetableIndex, times(2)).cancel(any());
+        verify(courseCardCache, never()).evict(COURSE_ID);
+
+        // The worker logs it and leaves the course to the next sweep
+        promoter.seatMayBeFree(COURSE_ID);
+        assertDoesNotThrow(promoter::promotePending);
+    }
+
+    @Test
+    void aFullBatchKeepsTheCourseQueuedUntilItsWaitlistIsDone() {
+        seats = new SeatSnapshot(null, 0); // no capacity: every waiter gets in, BATCH_SIZE at a time
+        queue.add(new WaitlistPromoter.Waiter(14, 104, "fourth"));
+        when(jdbcTemplate.update(eq(WaitlistPromoter.DEQUEUE), eq(COURSE_ID), any())).thenAnswer(invocation -> {
+            long upTo = invocation.getArgument(2);
+            queue.removeIf(waiter -> waiter.id() <= upTo);
+            return 1;
+        });
+
+        promoter.seatMayBeFree(COURSE_ID);
+        promoter.promotePending(); // first, second, third
+        promoter.promotePending(); // fourth
+        promoter.promotePending(); // nothing left to do
+
+        assertTrue(queue.isEmpty());
+        assertEquals(4, meterRegistry.counter("school.waitlist.promoted").count());
+        verify(jdbcTemplate, times(2)).query(eq(WaitlistPromoter.LOCK_COURSE), any(RowMapper.class), eq(COURSE_ID));
+    }
+}
@@ -0,0 +1,64 @@
+package com.rubayet.school.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeeklyScheduleTest {
+
+    private static int[] slot(DayOfWeek day, String start, String end) {
+        return new int[]{TimetableIndex.minuteOfWeek(day, LocalTime.parse(start)),
+                TimetableIndex.minuteOfWeek(day, LocalTime.parse(end))};
+    }
+
+    private static final int[] MON_9_TO_10 = slot(DayOfWeek.MONDAY, "09:00", "10:00");
+    private static final int[] WED_9_TO_10 = slot(DayOfWeek.WEDNESDAY, "09:00", "10:00");
+
+    @Test
+    void overlappingSlotIsAConflict() {
+        WeeklySchedule schedule = WeeklySchedule.of(1, new int[][]{MON_9_TO_10, WED_9_TO_10});
+
+        assertEquals(1L, schedule.conflictWith(new int[][]{slot(DayOfWeek.MONDAY, "09:30", "11:00")}));
+        assertEquals(1L, schedule.conflictWith(new int[][]{slot(DayOfWeek.WEDNESDAY, "08:00", "12:00")}));
+        assertEquals(1L, schedule.conflictWith(new int[][]{slot(DayOfWeek.MONDAY, "09:15", "09:45")}));
+    }
+
+    @Test
+    void backToBackAndOtherDaysAreFine() {
+        WeeklySchedule schedule = WeeklySchedule.of(1, new int[][]{MON_9_TO_10});
+
+        assertNull(schedule.conflictWith(new int[][]{slot(DayOfWeek.MONDAY, "10:00", "11:00")}));
+        assertNull(schedule.conflictWith(new int[][]{slot(DayOfWeek.MONDAY, "08:00", "09:00")}));
+        assertNull(schedule.conflictWith(new int[][]{slot(DayOfWeek.TUESDAY, "09:00", "10:00")}));
+        assertNull(WeeklySchedule.EMPTY.conflictWith(new int[][]{MON_9_TO_10}));
+    }
+
+    @Test
+    void longEarlierIntervalIsFoundBehindShorterOnes() {
+        // Course 1 runs all Monday morning; course 2 and 3 start later but end early
+        WeeklySchedule schedule = WeeklySchedule.of(1, new int[][]{slot(DayOfWeek.MONDAY, "08:00", "13:00")})
+                .with(2, new int[][]{slot(DayOfWeek.MONDAY, "08:30", "09:00")})
+                .with(3, new int[][]{slot(DayOfWeek.MONDAY, "09:00", "09:30")});
+
+        assertEquals(1L, schedule.conflictWith(new int[][]{slot(DayOfWeek.MONDAY, "12:00", "14:00")}));
+    }
+
+    @Test
+    void withoutRemovesEveryIntervalOfTheCourse() {
+        WeeklySchedule schedule = WeeklySchedule.of(1, new int[][]{MON_9_TO_10, WED_9_TO_10})
+                .with(2, new int[][]{slot(DayOfWeek.FRIDAY, "14:00", "15:00")});
+        assertEquals(3, schedule.size());
+        assertTrue(schedule.contains(1));
+
+        WeeklySchedule after = schedule.without(1);
+
+        assertEquals(1, after.size());
+        assertFalse(after.contains(1));
+        assertNull(after.conflictWith(new int[][]{MON_9_TO_10}));
+        assertEquals(2L, after.conflictWith(new int[][]{slot(DayOfWeek.FRIDAY, "14:30", "15:30")}));
+        assertEquals(3, schedule.size()); // the old one is unchanged
+    }
+}